@@ -0,0 +1,67 @@
+package benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import security.JwtService;
+import security.SecurityProperties;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+// Compara la verificación del JwtFilter antes (dos parseos con un parser nuevo cada vez) y después (parser único + caché),
+// y mide la firma de un token nuevo como en cada login
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private SecretKey secretKey;
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        jwtService = new JwtService(secretKey, new SecurityProperties(), new SimpleMeterRegistry());
+        token = jwtService.generateToken("49359161", "Citizen");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("49359161", "Citizen");
+    }
+
+    @Benchmark
+    public Claims previousFilterDoubleParse() {
+        // validateToken + getAuthentication construían un parser y verificaban el HMAC en cada llamada
+        Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody();
+        return Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims sharedParserSingleParse() {
+        return jwtService.extractClaims(token);
+    }
+
+    @Benchmark
+    public Authentication cachedAuthenticate() {
+        return jwtService.authenticate(token);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import entities.domain.Proposal;
+import entities.domain.ProposalSearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import platform.repository.ProposalRepositoryCustom;
+import platform.repository.memory.InMemoryProposalRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda por texto sobre 100k propuestas con el índice invertido del perfil in-memory.
+// SampleTime reporta p99: el objetivo es quedar por debajo de 50 ms también con términos muy frecuentes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProposalSearchBenchmark {
+
+    private static final String[] WORDS = {"plaza", "ciclovía", "iluminación", "barrio", "escuela", "parque",
+            "semáforo", "vereda", "árboles", "contenedores", "biblioteca", "policlínica", "rambla", "feria",
+            "ómnibus", "calles", "luces", "juegos", "cancha", "huerta"};
+
+    @Param({"100000"})
+    public int proposals;
+
+    // rambla aparece en uno de cada 20 títulos; barrio está en todas las descripciones
+    @Param({"rambla", "plazas iluminadas", "barrio"})
+    public String query;
+
+    private InMemoryProposalRepository repository;
+
+    @Setup
+    public void setup() {
+        repository = new InMemoryProposalRepository();
+        Random random = new Random(42);
+        for (int i = 0; i < proposals; i++) {
+            Proposal proposal = new Proposal();
+            proposal.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+            proposal.setDescription("Propuesta para el barrio sobre " + WORDS[random.nextInt(WORDS.length)]
+                    + ", " + WORDS[random.nextInt(WORDS.length)] + " y " + WORDS[random.nextInt(WORDS.length)]);
+            proposal.setAuthorDocument("41162211");
+            proposal.setLimitDate(LocalDate.now().plusDays(random.nextInt(60) - 30));
+            repository.save(proposal);
+        }
+    }
+
+    @Benchmark
+    public List<ProposalSearchHit> search() {
+        return repository.search(query, null, 20);
+    }
+
+    @Benchmark
+    public List<ProposalSearchHit> searchOpen() {
+        return repository.search(query, ProposalRepositoryCustom.Status.OPEN, 20);
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización de una propuesta completa como en GET /api/proposals/{id} y GET /api/proposals.
+// Los votos ya no viven en el documento (colección votes), así que el tamaño lo definen los comentarios.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProposalSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int comments;
+
+    private ObjectMapper objectMapper;
+    private Proposal proposal;
+
+    @Setup
+    public void setup() {
+        // Misma configuración que el ObjectMapper de Spring Boot (módulo de fechas de Java incluido)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        proposal = new Proposal();
+        proposal.setId(new ObjectId().toHexString());
+        proposal.setTitle("Crear ciclovía en el barrio Centro");
+        proposal.setDescription("Crear una ciclovía en el barrio Centro para fomentar el uso de la bicicleta y reducir el tráfico.");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.of(2025, 12, 31));
+        proposal.setInFavorCount(250_000);
+        proposal.setAgainstCount(120_000);
+        proposal.setUpdatedAt(Instant.now());
+        proposal.setVersion(370_000L);
+
+        List<Comment> list = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            Comment comment = new Comment();
+            comment.setId(new ObjectId().toHexString());
+            comment.setUserDocument(String.valueOf(40000000 + i));
+            comment.setDescription("Comentario número " + i + " sobre la ciclovía del barrio Centro");
+            comment.setPublishDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            list.add(comment);
+        }
+        proposal.setComments(list);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(proposal);
+    }
+}
@@ -0,0 +1,118 @@
+package benchmark;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import entities.domain.Proposal;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import platform.CitizenParticipationApplication;
+import platform.service.ProposalService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ProposalService.vote contra un Mongo en memoria con N votos previos en la propuesta.
+// La deduplicación la resuelve el índice único (proposalId, userDocument): repetir el voto no cambia el conteo.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProposalVoteBenchmark {
+
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"1000", "100000"})
+    public int existingVotes;
+
+    private MongoServer mongoServer;
+    private ConfigurableApplicationContext context;
+    private ProposalService proposalService;
+    private String proposalId;
+    private boolean inFavor;
+
+    @Setup
+    public void setup() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        String mongoUri = mongoServer.bindAndGetConnectionString() + "/citizen-benchmark";
+        context = new SpringApplicationBuilder(CitizenParticipationApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.mongodb.uri=" + mongoUri, "--logging.level.root=WARN");
+        proposalService = context.getBean(ProposalService.class);
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Crear ciclovía en el barrio Centro");
+        proposal.setDescription("Crear una ciclovía en el barrio Centro.");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.now().plusDays(30));
+        proposal.setInFavorCount(existingVotes);
+        proposalId = mongoTemplate.insert(proposal).getId();
+
+        List<Vote> votes = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < existingVotes; i++) {
+            Vote vote = new Vote();
+            vote.setProposalId(proposalId);
+            vote.setUserDocument(String.valueOf(30000000 + i));
+            vote.setInFavor(true);
+            votes.add(vote);
+            if (votes.size() == SEED_BATCH) {
+                mongoTemplate.insert(votes, Vote.class);
+                votes.clear();
+            }
+        }
+        mongoTemplate.insert(votes, Vote.class);
+
+        // El hilo del benchmark es el mismo que ejecuta este @Setup porque el estado es Scope.Thread
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "30000000", "", List.of(new SimpleGrantedAuthority("Citizen"))));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+        mongoServer.shutdownNow();
+    }
+
+    // Un ciudadano que ya votó repite el mismo voto: upsert sin delta y lectura del conteo
+    @Benchmark
+    public Tally repeatedVote() {
+        return proposalService.vote(proposalId, vote(true));
+    }
+
+    // El ciudadano cambia de opinión en cada invocación: upsert más incremento atómico de los contadores
+    @Benchmark
+    public Tally changedVote() {
+        inFavor = !inFavor;
+        return proposalService.vote(proposalId, vote(inFavor));
+    }
+
+    private static Vote vote(boolean inFavor) {
+        Vote vote = new Vote();
+        vote.setInFavor(inFavor);
+        return vote;
+    }
+}
@@ -0,0 +1,184 @@
+package benchmark;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Mide el arranque del artefacto del perfil fast-startup en tres modos: jar normal, con AOT y con AOT + CDS.
+// Cada corrida es un proceso nuevo; se toma el tiempo hasta la primera respuesta HTTP y el "process running for"
+// que informa Spring Boot. Uso: mvn -P fast-startup,benchmark -DskipTests -Djmh.skip=true -Dstartup.skip=false verify
+// Con --max-first-request-millis=N termina con error si la mediana de AOT + CDS supera N (para detectar regresiones).
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in [\\d.]+ seconds \\(process running for ([\\d.]+)\\)");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private record Mode(String name, List<String> jvmArguments) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        Path directory = Path.of(options.getOrDefault("directory", "target/fast-startup"));
+        String jar = options.getOrDefault("jar", "citizen-participation-0.0.1-SNAPSHOT.jar");
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        long maxFirstRequestMillis = Long.parseLong(options.getOrDefault("max-first-request-millis", "0"));
+        Path output = Path.of(options.getOrDefault("output", "target/startup.json"));
+
+        List<Mode> modes = new ArrayList<>(List.of(
+                new Mode("jar", List.of()),
+                new Mode("aot", List.of("-Dspring.aot.enabled=true"))));
+        if (Files.exists(directory.resolve("app.jsa"))) {
+            modes.add(new Mode("aot-cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=app.jsa")));
+        } else {
+            System.out.println("No CDS archive in " + directory + ", skipping aot-cds");
+        }
+
+        // Un servidor MongoDB en memoria para que todas las corridas encuentren la misma base, vacía
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        String mongoUri = mongoServer.bindAndGetConnectionString() + "/citizen-startup";
+        try {
+            List<Result> results = new ArrayList<>();
+            for (Mode mode : modes) {
+                // La primera corrida de cada modo calienta la caché de archivos del sistema operativo y no se cuenta
+                run(directory, jar, mode, mongoUri);
+                long[] startup = new long[runs];
+                long[] firstRequest = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    long[] measured = run(directory, jar, mode, mongoUri);
+                    startup[i] = measured[0];
+                    firstRequest[i] = measured[1];
+                }
+                Result result = new Result(mode.name(), startup, firstRequest);
+                System.out.println(result);
+                results.add(result);
+            }
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            Files.writeString(output, "[" + String.join(",", results.stream().map(Result::toJson).toList()) + "]\n");
+
+            Result last = results.getLast();
+            if (maxFirstRequestMillis > 0 && last.median(last.firstRequestMillis()) > maxFirstRequestMillis) {
+                System.err.printf(Locale.ROOT, "%s: median time to first request %d ms exceeds %d ms%n",
+                        last.mode(), last.median(last.firstRequestMillis()), maxFirstRequestMillis);
+                System.exit(1);
+            }
+        } finally {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    // Devuelve {arranque según Spring Boot, primera respuesta desde que se lanzó el proceso}, en milisegundos
+    private static long[] run(Path directory, String jar, Mode mode, String mongoUri) throws Exception {
+        int port = freePort();
+        Path log = Files.createTempFile("startup-" + mode.name(), ".log");
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArguments());
+        command.addAll(List.of("-jar", jar, "--server.port=" + port, "--spring.data.mongodb.uri=" + mongoUri));
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long firstRequest = -1;
+            while (firstRequest < 0) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() - start > STARTUP_TIMEOUT.toNanos()) {
+                    throw new IllegalStateException(mode.name() + " did not answer in " + STARTUP_TIMEOUT + ", see " + log);
+                }
+                try {
+                    // Cualquier respuesta cuenta: el health puede estar DOWN mientras conecta con MongoDB
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    firstRequest = (System.nanoTime() - start) / 1_000_000;
+                } catch (IOException e) {
+                    Thread.sleep(10);
+                }
+            }
+
+            // El log de "Started" puede llegar un instante después de que Tomcat ya atiende
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (System.nanoTime() < deadline) {
+                Matcher matcher = STARTED.matcher(Files.readString(log));
+                if (matcher.find()) {
+                    Files.delete(log);
+                    return new long[]{Math.round(Double.parseDouble(matcher.group(1)) * 1000), firstRequest};
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode.name() + " did not log its startup time, see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Result(String mode, long[] startupMillis, long[] firstRequestMillis) {
+
+        long median(long[] values) {
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+            return sorted[sorted.length / 2];
+        }
+
+        long max(long[] values) {
+            return Arrays.stream(values).max().orElse(0);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"mode\":\"%s\",\"runs\":%d,\"startupMedianMillis\":%d,\"startupMaxMillis\":%d,\"firstRequestMedianMillis\":%d,\"firstRequestMaxMillis\":%d}",
+                    mode, startupMillis.length, median(startupMillis), max(startupMillis),
+                    median(firstRequestMillis), max(firstRequestMillis));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s runs=%d startup median=%d ms max=%d ms first request median=%d ms max=%d ms",
+                    mode, startupMillis.length, median(startupMillis), max(startupMillis),
+                    median(firstRequestMillis), max(firstRequestMillis));
+        }
+    }
+}
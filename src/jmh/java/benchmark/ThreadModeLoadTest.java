@@ -0,0 +1,185 @@
+package benchmark;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import entities.domain.Proposal;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import platform.CitizenParticipationApplication;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Prueba de carga que compara Tomcat con hilos de plataforma y con hilos virtuales bajo N clientes concurrentes.
+// Uso: mvn -P benchmark -DskipTests -Dload.skip=false verify -Dload.args="--clients=10000 --requests=5"
+// Con --mongo-uri=mongodb://host:27017/citizen-load se usa un mongod real en lugar del servidor en memoria,
+// y con --in-memory=true los repositorios en memoria: así se mide solo el costo propio de la aplicación.
+public class ThreadModeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "10000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "5"));
+        Path output = Path.of(options.getOrDefault("output", "target/thread-mode-load.json"));
+
+        MongoServer mongoServer = null;
+        String mongoUri = options.get("mongo-uri");
+        boolean inMemory = Boolean.parseBoolean(options.getOrDefault("in-memory", "false"));
+        if (mongoUri == null && !inMemory) {
+            mongoServer = new MongoServer(new MemoryBackend());
+            mongoUri = mongoServer.bindAndGetConnectionString() + "/citizen-load";
+        }
+
+        try {
+            List<String> results = new ArrayList<>();
+            for (boolean virtual : new boolean[]{false, true}) {
+                Result result = run(inMemory ? null : mongoUri, virtual, clients, requests);
+                System.out.println(result);
+                results.add(result.toJson());
+            }
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            Files.writeString(output, "[" + String.join(",", results) + "]\n");
+        } finally {
+            if (mongoServer != null) {
+                mongoServer.shutdownNow();
+            }
+        }
+    }
+
+    private static Result run(String mongoUri, boolean virtual, int clients, int requests) throws Exception {
+        // Como argumentos y no como propiedades por defecto, para que tengan prioridad sobre application.yml
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.max-connections=" + (clients + 1000),
+                "--server.tomcat.accept-count=" + clients,
+                "--logging.level.root=WARN"));
+        arguments.add(mongoUri != null ? "--spring.data.mongodb.uri=" + mongoUri : "--spring.profiles.active=in-memory");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CitizenParticipationApplication.class)
+                .run(arguments.toArray(String[]::new))) {
+            seed(context.getBean(ProposalRepository.class));
+            String token = context.getBean(JwtService.class).generateToken("41162211", "Mayor");
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/proposals/page?size=20");
+
+            // Calentamiento con pocos clientes para que JIT y pools no distorsionen la medición
+            load(uri, token, Math.min(clients, 200), requests);
+            long[] latencies = new long[clients * requests];
+            long start = System.nanoTime();
+            int errors = load(uri, token, clients, requests, latencies);
+            long elapsed = System.nanoTime() - start;
+            return new Result(virtual ? "virtual" : "platform", clients, latencies, errors, elapsed);
+        }
+    }
+
+    private static void seed(ProposalRepository repository) {
+        if (repository.count() > 0) {
+            return;
+        }
+        List<Proposal> proposals = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Proposal proposal = new Proposal();
+            proposal.setTitle("Propuesta " + i);
+            proposal.setDescription("Descripción de la propuesta " + i);
+            proposal.setAuthorDocument("41162211");
+            proposal.setLimitDate(LocalDate.now().plusDays(30));
+            proposals.add(proposal);
+        }
+        repository.saveAll(proposals);
+    }
+
+    private static int load(URI uri, String token, int clients, int requests) throws InterruptedException {
+        return load(uri, token, clients, requests, new long[clients * requests]);
+    }
+
+    // Cada cliente es un hilo virtual con su propia secuencia de requests; las latencias se guardan por posición
+    private static int load(URI uri, String token, int clients, int requests, long[] latencies) throws InterruptedException {
+        AtomicInteger errors = new AtomicInteger();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int offset = client * requests;
+                executor.execute(() -> {
+                    for (int i = 0; i < requests; i++) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies[offset + i] = System.nanoTime() - start;
+                    }
+                });
+            }
+        }
+        return errors.get();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Result(String mode, int clients, long[] latencies, int errors, long elapsedNanos) {
+
+        double throughput() {
+            return latencies.length * 1e9 / elapsedNanos;
+        }
+
+        double percentileMillis(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"mode\":\"%s\",\"clients\":%d,\"requests\":%d,\"errors\":%d,\"throughput\":%.1f,\"p50Millis\":%.2f,\"p99Millis\":%.2f}",
+                    mode, clients, latencies.length, errors, throughput(), percentileMillis(0.50), percentileMillis(0.99));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms",
+                    mode, clients, latencies.length, errors, throughput(), percentileMillis(0.50), percentileMillis(0.99));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package platform.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Validaciones que corren en cada alta de usuario y en cada fila de la importación masiva.
+// Está en el paquete del servicio porque los métodos son package-private.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidationBenchmark {
+
+    // Cédula de 8 dígitos, de 7 dígitos y con dígito verificador incorrecto
+    @Param({"41162211", "1234561", "41162212"})
+    public String document;
+
+    @Param({"santiago.rodriguez@montevideo.gub.uy"})
+    public String email;
+
+    @Benchmark
+    public boolean uruguayanDocument() {
+        return UserService.isValidUruguayanDocument(document);
+    }
+
+    @Benchmark
+    public boolean email() {
+        return UserService.isValidEmail(email);
+    }
+}
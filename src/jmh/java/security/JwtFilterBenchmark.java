@@ -0,0 +1,95 @@
+package security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Costo del filtro por request: token ya verificado (caché), token nuevo en cada request y URI pública.
+// Está en el paquete security para invocar doFilterInternal directamente.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private JwtFilter filter;
+    private MockHttpServletRequest cachedRequest;
+    private MockHttpServletRequest publicRequest;
+    private MockHttpServletRequest[] uncachedRequests;
+    private MockHttpServletResponse response;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SecurityProperties properties = new SecurityProperties();
+        properties.setPublicUris(List.of("/api/users/login"));
+        // Caché chica para que los tokens distintos no entren y cada request pague la verificación completa
+        properties.setTokenCacheSize(1);
+        JwtService jwtService = new JwtService(Keys.secretKeyFor(SignatureAlgorithm.HS256), properties, new SimpleMeterRegistry());
+        filter = new JwtFilter(jwtService, properties);
+
+        cachedRequest = request("/api/proposals/page", jwtService.generateToken("49359161", "Citizen"));
+        publicRequest = request("/api/users/login", null);
+        uncachedRequests = new MockHttpServletRequest[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            uncachedRequests[i] = request("/api/proposals/page", jwtService.generateToken(String.valueOf(40000000 + i), "Citizen"));
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object cachedToken() throws ServletException, IOException {
+        return filter(cachedRequest);
+    }
+
+    @Benchmark
+    public Object uncachedToken() throws ServletException, IOException {
+        MockHttpServletRequest request = uncachedRequests[next];
+        next = (next + 1) % DISTINCT_TOKENS;
+        return filter(request);
+    }
+
+    @Benchmark
+    public Object publicUri() throws ServletException, IOException {
+        return filter(publicRequest);
+    }
+
+    private Object filter(MockHttpServletRequest request) throws ServletException, IOException {
+        filter.doFilterInternal(request, response, CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static MockHttpServletRequest request(String uri, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+}
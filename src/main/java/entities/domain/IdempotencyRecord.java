@@ -0,0 +1,31 @@
+package entities.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Una Idempotency-Key tomada por un usuario, compartida por todos los nodos. Mientras el request original
+// corre no tiene respuesta; si termina con 2xx se guarda la respuesta y si no se borra el registro.
+@Getter
+@Setter
+@Document(collection = "idempotency_keys")
+@CompoundIndex(name = "user_key", def = "{'user': 1, 'key': 1}", unique = true)
+public class IdempotencyRecord {
+    @Id
+    private String id;
+    private String user;
+    private String key;
+    private String fingerprint;
+    // MongoDB borra el registro al llegar a expiresAt (el monitor de TTL pasa cada minuto)
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+    private Integer status;
+    private String contentType;
+    private String etag;
+    private byte[] body;
+}
@@ -4,23 +4,49 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
 @Getter
 @Setter
-@Document(collection = "proposals")
+// El índice de texto en español no distingue mayúsculas ni tildes y busca por raíz (plazas encuentra plaza)
+@Document(collection = "proposals", language = "spanish")
+@CompoundIndex(name = "author_id", def = "{'authorDocument': 1, '_id': -1}")
 public class Proposal {
     @Id
     private String id;
+    @TextIndexed(weight = 3)
     private String title;
+    @TextIndexed
     private String description;
     private String authorDocument;
     @JsonFormat(pattern = "dd/MM/yyyy")
+    @Indexed
     private LocalDate limitDate;
-    private List<Vote> votes;
+    private long inFavorCount;
+    private long againstCount;
+    // Cambia con cada recálculo de los contadores: un $inc de un voto leído en una época anterior se rechaza,
+    // porque el recálculo pudo haber contado ese voto
+    private long tallyEpoch;
+    @Indexed
+    private Instant updatedAt;
     private List<Comment> comments;
+    // Aumenta con cada modificación; se usa como ETag y para la concurrencia optimista
+    @Version
+    private Long version;
+    // Lo completa el motor de ciclo de vida al vencer limitDate; desde entonces no se aceptan votos ni comentarios
+    @Indexed(sparse = true)
+    private Instant closedAt;
+    // Votos y comentarios movidos a las colecciones de archivo; el resultado queda en proposal_results
+    private Instant archivedAt;
+    // Marca del nodo que está archivando la propuesta; una marca vieja es de un archivo que se cortó y se retoma
+    private Instant archivingAt;
 
 }
@@ -0,0 +1,28 @@
+package entities.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Resultado final de una propuesta cerrada; el id es el de la propuesta
+@Getter
+@Setter
+@Document(collection = "proposal_results")
+public class ProposalResult {
+    @Id
+    private String id;
+    private String title;
+    private String authorDocument;
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate limitDate;
+    private long inFavorCount;
+    private long againstCount;
+    private int commentCount;
+    private Instant closedAt;
+    private Instant archivedAt;
+}
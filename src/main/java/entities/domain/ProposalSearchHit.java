@@ -0,0 +1,14 @@
+package entities.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Resumen de una propuesta encontrada por la búsqueda, con su relevancia para el texto buscado
+@Getter
+@Setter
+public class ProposalSearchHit extends ProposalSummary {
+    private double score;
+    private Instant closedAt;
+}
@@ -0,0 +1,24 @@
+package entities.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class ProposalSummary {
+    private String id;
+    private String title;
+    private String description;
+    private String authorDocument;
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate limitDate;
+    private long inFavorCount;
+    private long againstCount;
+    private int commentCount;
+    private Instant updatedAt;
+    private long version;
+}
@@ -0,0 +1,19 @@
+package entities.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class Tally {
+    private String proposalId;
+    private long inFavor;
+    private long against;
+
+    public Tally(String proposalId, long inFavor, long against) {
+        this.proposalId = proposalId;
+        this.inFavor = inFavor;
+        this.against = against;
+    }
+
+}
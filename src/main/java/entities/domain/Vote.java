@@ -2,10 +2,18 @@ package entities.domain;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
 @Setter
+@Document(collection = "votes")
+@CompoundIndex(name = "proposal_user", def = "{'proposalId': 1, 'userDocument': 1}", unique = true)
 public class Vote {
+    @Id
+    private String id;
+    private String proposalId;
     private String userDocument;
     private boolean inFavor;
 }
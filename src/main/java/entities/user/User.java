@@ -3,6 +3,7 @@ package entities.user;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
@@ -11,9 +12,14 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @TypeAlias("user")
 public class User {
 
+    public static final String DOCUMENT_INDEX = "document_unique";
+    public static final String EMAIL_INDEX = "email_unique";
+
     private String id;
+    @Indexed(name = DOCUMENT_INDEX, unique = true)
     private String document;
     private String name;
+    @Indexed(name = EMAIL_INDEX, unique = true)
     private String email;
     private String password;
     private String address;
@@ -2,12 +2,9 @@ package platform;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
 
-@SpringBootApplication
-@ComponentScan(basePackages = {
-        "exception", "security"
-})
+// Un solo escaneo de los tres paquetes con componentes (entities solo tiene documentos y DTOs)
+@SpringBootApplication(scanBasePackages = {"platform", "exception", "security"})
 public class CitizenParticipationApplication {
 
     public static void main(String[] args) {
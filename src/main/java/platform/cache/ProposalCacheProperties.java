@@ -0,0 +1,69 @@
+package platform.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+@ConfigurationProperties(prefix = "platform.cache.proposals")
+public class ProposalCacheProperties {
+
+    // Lecturas que pasan por la caché; las que no están en la lista van siempre a MongoDB
+    public enum ReadPath { PAGE, TALLY, COMMENTS }
+
+    private boolean enabled = true;
+    private Set<ReadPath> paths = EnumSet.allOf(ReadPath.class);
+    private long maximumSize = 10_000;
+    // Acota cuánto puede atrasarse un nodo respecto de las escrituras hechas en otros nodos
+    private Duration expireAfterWrite = Duration.ofSeconds(10);
+    // Cada cuánto los votos invalidan las páginas del listado que muestran la propuesta votada; el conteo exacto
+    // está en el endpoint de tally, que se invalida con cada voto
+    private Duration pageVoteRefresh = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<ReadPath> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(Set<ReadPath> paths) {
+        this.paths = paths;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getPageVoteRefresh() {
+        return pageVoteRefresh;
+    }
+
+    public void setPageVoteRefresh(Duration pageVoteRefresh) {
+        this.pageVoteRefresh = pageVoteRefresh;
+    }
+
+    public boolean caches(ReadPath path) {
+        return enabled && paths.contains(path);
+    }
+}
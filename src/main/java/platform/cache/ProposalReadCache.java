@@ -0,0 +1,202 @@
+package platform.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import entities.domain.Comment;
+import entities.domain.CursorPage;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import platform.cache.ProposalCacheProperties.ReadPath;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Caché en memoria de las lecturas de propuestas; cada escritura invalida solo las entradas que incluyen la propuesta tocada
+@Component
+public class ProposalReadCache {
+
+    public record PageKey(String cursor, LocalDate limitDateFrom, LocalDate limitDateTo, String authorDocument, int size) {
+    }
+
+    public record CommentsKey(String proposalId, String cursor, int size) {
+    }
+
+    private final CachedRead<PageKey, CursorPage<ProposalSummary>> pages;
+    private final CachedRead<String, Tally> tallies;
+    private final CachedRead<CommentsKey, CursorPage<Comment>> comments;
+    // Propuestas votadas cuyas páginas todavía no se invalidaron; se juntan para no vaciar las páginas de las más
+    // votadas con cada voto
+    private final Set<String> votedSincePageRefresh = ConcurrentHashMap.newKeySet();
+    private final long pageVoteRefreshNanos;
+    private final AtomicLong nextPageRefresh;
+
+    public ProposalReadCache(ProposalCacheProperties properties, MeterRegistry meterRegistry) {
+        this.pageVoteRefreshNanos = properties.getPageVoteRefresh().toNanos();
+        this.nextPageRefresh = new AtomicLong(System.nanoTime());
+        this.pages = new CachedRead<>(properties, ReadPath.PAGE, meterRegistry,
+                page -> page.getItems().stream().map(ProposalSummary::getId).toList(), null);
+        this.tallies = new CachedRead<>(properties, ReadPath.TALLY, meterRegistry,
+                null, proposalId -> List.of(proposalId));
+        this.comments = new CachedRead<>(properties, ReadPath.COMMENTS, meterRegistry,
+                null, key -> List.of(key.proposalId()));
+    }
+
+    public CursorPage<ProposalSummary> page(PageKey key, Supplier<CursorPage<ProposalSummary>> loader) {
+        refreshVotedPages();
+        return pages.get(key, loader);
+    }
+
+    public Tally tally(String proposalId, Supplier<Tally> loader) {
+        return tallies.get(proposalId, loader);
+    }
+
+    public CursorPage<Comment> comments(CommentsKey key, Supplier<CursorPage<Comment>> loader) {
+        return comments.get(key, loader);
+    }
+
+    // Votos, comentarios o borrado: cambia la propuesta y las páginas del listado que la muestran
+    public void invalidate(String proposalId) {
+        pages.invalidate(proposalId);
+        tallies.invalidate(proposalId);
+        comments.invalidate(proposalId);
+    }
+
+    public void invalidate(Collection<String> proposalIds) {
+        proposalIds.forEach(this::invalidate);
+    }
+
+    // Un voto cambia solo los contadores: el tally se invalida enseguida y las páginas que muestran la propuesta,
+    // a lo sumo una vez por page-vote-refresh; los comentarios no cambian
+    public void votesChanged(String proposalId) {
+        tallies.invalidate(proposalId);
+        votedSincePageRefresh.add(proposalId);
+        refreshVotedPages();
+    }
+
+    public void votesChanged(Collection<String> proposalIds) {
+        proposalIds.forEach(this::votesChanged);
+    }
+
+    // Una propuesta nueva tiene el _id más alto, así que solo puede aparecer en primeras páginas (sin cursor)
+    public void proposalCreated() {
+        pages.invalidateIf(key -> key.cursor() == null);
+    }
+
+    // Solo el hilo que gana el intervalo invalida; los votos que llegan mientras tanto quedan para el próximo
+    private void refreshVotedPages() {
+        long due = nextPageRefresh.get();
+        long now = System.nanoTime();
+        if (votedSincePageRefresh.isEmpty() || now - due < 0 || !nextPageRefresh.compareAndSet(due, now + pageVoteRefreshNanos)) {
+            return;
+        }
+        for (Iterator<String> voted = votedSincePageRefresh.iterator(); voted.hasNext(); ) {
+            String proposalId = voted.next();
+            voted.remove();
+            pages.invalidate(proposalId);
+        }
+    }
+
+    // Una lectura cacheada más el índice inverso propuesta -> claves que permite invalidar con precisión
+    private static final class CachedRead<K, V> {
+        private final boolean enabled;
+        private final Cache<K, V> cache;
+        private final Map<String, Set<K>> keysByProposal = new ConcurrentHashMap<>();
+        private final Function<V, List<String>> proposalsOfValue;
+        private final Function<K, List<String>> proposalsOfKey;
+        // Se incrementa en cada invalidación; una carga que se cruzó con una escritura no se conserva
+        private final AtomicLong generation = new AtomicLong();
+
+        CachedRead(ProposalCacheProperties properties, ReadPath path, MeterRegistry meterRegistry,
+                   Function<V, List<String>> proposalsOfValue, Function<K, List<String>> proposalsOfKey) {
+            this.enabled = properties.caches(path);
+            this.proposalsOfValue = proposalsOfValue;
+            this.proposalsOfKey = proposalsOfKey;
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumSize())
+                    .expireAfterWrite(properties.getExpireAfterWrite())
+                    .removalListener((K key, V value, RemovalCause cause) -> {
+                        // Al reemplazar, el índice ya apunta a la clave por el valor nuevo
+                        if (cause != RemovalCause.REPLACED) {
+                            unindex(key, value);
+                        }
+                    })
+                    .executor(Runnable::run)
+                    .recordStats()
+                    .build();
+            if (enabled) {
+                CaffeineCacheMetrics.monitor(meterRegistry, cache, "proposals." + path.name().toLowerCase());
+            }
+        }
+
+        V get(K key, Supplier<V> loader) {
+            if (!enabled) {
+                return loader.get();
+            }
+            V cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            long before = generation.get();
+            V loaded = loader.get();
+            if (loaded == null) {
+                return null;
+            }
+            proposalsOf(key, loaded).forEach(id -> keysByProposal.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(key));
+            cache.put(key, loaded);
+            // Si hubo una invalidación mientras se leía de MongoDB, el valor puede estar desactualizado
+            if (generation.get() != before) {
+                cache.invalidate(key);
+            }
+            return loaded;
+        }
+
+        void invalidate(String proposalId) {
+            if (!enabled) {
+                return;
+            }
+            generation.incrementAndGet();
+            Set<K> keys = keysByProposal.remove(proposalId);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+
+        void invalidateIf(Predicate<K> predicate) {
+            if (!enabled) {
+                return;
+            }
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(predicate);
+        }
+
+        private void unindex(K key, V value) {
+            if (key == null || value == null) {
+                return;
+            }
+            for (String proposalId : proposalsOf(key, value)) {
+                keysByProposal.computeIfPresent(proposalId, (id, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+
+        private List<String> proposalsOf(K key, V value) {
+            return proposalsOfValue != null ? proposalsOfValue.apply(value) : proposalsOfKey.apply(key);
+        }
+    }
+}
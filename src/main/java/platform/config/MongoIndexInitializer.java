@@ -0,0 +1,189 @@
+package platform.config;
+
+import entities.domain.IdempotencyRecord;
+import entities.domain.Proposal;
+import entities.domain.Vote;
+import entities.user.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Crea los índices declarados en las entidades antes de que la aplicación empiece a recibir requests
+// y reporta las diferencias con los índices que ya existen en la base.
+// Corre al arrancar el contexto y no al crear el bean, así la corrida de entrenamiento de CDS no necesita MongoDB.
+@Component
+@ConditionalOnProperty(prefix = "platform.mongo", name = "ensure-indexes", havingValue = "true", matchIfMissing = true)
+public class MongoIndexInitializer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Proposal.class, Vote.class, User.class, IdempotencyRecord.class);
+
+    // created: declarados que faltaban; conflicting: mismas claves con otras opciones; undeclared: existen pero no están declarados
+    public record IndexDrift(String collection, List<String> created, List<String> conflicting, List<String> undeclared) {
+
+        boolean hasDrift() {
+            return !conflicting.isEmpty() || !undeclared.isEmpty();
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean failOnDrift;
+    private volatile boolean running;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 @Value("${platform.mongo.fail-on-index-drift:false}") boolean failOnDrift) {
+        this.mongoTemplate = mongoTemplate;
+        this.failOnDrift = failOnDrift;
+    }
+
+    @Override
+    public void start() {
+        List<IndexDrift> report = ensureIndexes();
+        if (failOnDrift && report.stream().anyMatch(IndexDrift::hasDrift)) {
+            throw new IllegalStateException("MongoDB indexes differ from the declared ones: " + report);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Antes que el servidor web, que arranca en una de las últimas fases
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public List<IndexDrift> ensureIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        List<IndexDrift> report = new ArrayList<>();
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexDrift drift = ensureIndexes(entity, resolver);
+            report.add(drift);
+            if (drift.hasDrift()) {
+                log.warn("Index drift on {}: created {}, conflicting {}, undeclared {}",
+                        drift.collection(), drift.created(), drift.conflicting(), drift.undeclared());
+            } else if (!drift.created().isEmpty()) {
+                log.info("Created indexes on {}: {}", drift.collection(), drift.created());
+            }
+        }
+        return report;
+    }
+
+    private IndexDrift ensureIndexes(Class<?> entity, IndexResolver resolver) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        List<Document> existing = new ArrayList<>();
+        if (mongoTemplate.collectionExists(collection)) {
+            mongoTemplate.getCollection(collection).listIndexes().into(existing);
+        }
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+        List<String> created = new ArrayList<>();
+        List<String> conflicting = new ArrayList<>();
+        for (IndexDefinition definition : resolver.resolveIndexFor(entity)) {
+            Document keys = definition.getIndexKeys();
+            Document options = definition.getIndexOptions();
+            boolean unique = options.getBoolean("unique", false);
+            boolean text = keys.containsValue("text");
+            Document match = existing.stream()
+                    .filter(index -> text ? sameTextFields(index, keys) : sameKeys(index.get("key", Document.class), keys))
+                    .findFirst()
+                    .orElse(null);
+
+            if (match == null) {
+                indexOperations.ensureIndex(definition);
+                created.add(describe(keys, unique));
+            } else {
+                existing.remove(match);
+                // Mongo no permite dos índices con las mismas claves, así que uno con otras opciones hay que cambiarlo a mano
+                if (text) {
+                    String declared = describeText(keys, options.get("weights", Document.class), options.getString("default_language"));
+                    String actual = describeText(keys, match.get("weights", Document.class), match.getString("default_language"));
+                    if (!declared.equals(actual)) {
+                        conflicting.add(match.getString("name") + " " + actual + ", declared " + declared);
+                    }
+                } else if (match.getBoolean("unique", false) != unique) {
+                    conflicting.add(match.getString("name") + " " + describe(keys, match.getBoolean("unique", false))
+                            + ", declared " + describe(keys, unique));
+                }
+            }
+        }
+
+        List<String> undeclared = existing.stream()
+                .filter(index -> !"_id_".equals(index.getString("name")))
+                .map(index -> index.getString("name") + " " + index.get("key", Document.class).toJson())
+                .toList();
+        return new IndexDrift(collection, created, conflicting, undeclared);
+    }
+
+    // El orden de las claves importa en un índice compuesto; los números pueden venir como int, long o double
+    static boolean sameKeys(Document existing, Document declared) {
+        if (existing == null || existing.size() != declared.size()) {
+            return false;
+        }
+        List<Map.Entry<String, Object>> a = new ArrayList<>(existing.entrySet());
+        List<Map.Entry<String, Object>> b = new ArrayList<>(declared.entrySet());
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getKey().equals(b.get(i).getKey())
+                    || !normalize(a.get(i).getValue()).equals(normalize(b.get(i).getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Mongo guarda los índices de texto como {_fts: "text", _ftsx: 1} y los campos quedan en weights
+    static boolean sameTextFields(Document existing, Document declared) {
+        Document key = existing.get("key", Document.class);
+        if (key == null || !key.containsKey("_fts")) {
+            return sameKeys(key, declared);
+        }
+        Document weights = existing.get("weights", Document.class);
+        return weights != null && weights.keySet().equals(declared.keySet());
+    }
+
+    // Los campos sin peso explícito pesan 1; el idioma por defecto de Mongo es inglés
+    private static String describeText(Document keys, Document weights, String language) {
+        Map<String, Object> normalized = new TreeMap<>();
+        keys.keySet().forEach(field -> normalized.put(field, 1));
+        if (weights != null) {
+            weights.forEach((field, weight) -> normalized.put(field, normalize(weight)));
+        }
+        return "text " + normalized + " " + (language != null ? language : "english");
+    }
+
+    private static Object normalize(Object value) {
+        return value instanceof Number number ? (Object) number.intValue() : String.valueOf(value);
+    }
+
+    private static String describe(Document keys, boolean unique) {
+        return keys.toJson() + (unique ? " unique" : "");
+    }
+}
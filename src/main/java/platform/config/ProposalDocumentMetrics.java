@@ -0,0 +1,65 @@
+package platform.config;
+
+import com.mongodb.MongoClientSettings;
+import entities.domain.Proposal;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Distribución del tamaño de las propuestas leídas completas: bytes en BSON, comentarios y votos.
+// Sirve para ver cuánto falta para el límite de 16 MB de MongoDB y qué tan pesadas son las lecturas.
+@Component
+@ConditionalOnProperty(prefix = "platform.metrics", name = "proposal-documents", havingValue = "true", matchIfMissing = true)
+public class ProposalDocumentMetrics implements AfterConvertCallback<Proposal> {
+
+    private static final double MAX_DOCUMENT_BYTES = 16 * 1024 * 1024;
+
+    private final Codec<Document> codec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private final DistributionSummary documentSize;
+    private final DistributionSummary comments;
+    private final DistributionSummary votes;
+    private final double sizeSampleRate;
+
+    public ProposalDocumentMetrics(MeterRegistry meterRegistry,
+                                   @Value("${platform.metrics.document-size-sample-rate:0.01}") double sizeSampleRate) {
+        this.sizeSampleRate = sizeSampleRate;
+        this.documentSize = DistributionSummary.builder("proposals.document.size")
+                .description("BSON size of proposal documents read in full")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_DOCUMENT_BYTES)
+                .register(meterRegistry);
+        this.comments = DistributionSummary.builder("proposals.document.comments")
+                .description("Length of the comments array of proposals read in full")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        // Los votos viven en su propia colección; el largo equivalente es la suma de los contadores
+        this.votes = DistributionSummary.builder("proposals.document.votes")
+                .description("Votes counted on proposals read in full")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Proposal onAfterConvert(Proposal proposal, Document document, String collection) {
+        // Las lecturas con proyección (conteos, versión) no representan el documento completo
+        if (document.containsKey("title")) {
+            // Medir los bytes vuelve a codificar el documento, así que se hace sobre una muestra de las lecturas;
+            // los largos de los arreglos ya están en la entidad y se registran siempre
+            if (ThreadLocalRandom.current().nextDouble() < sizeSampleRate) {
+                documentSize.record(new RawBsonDocument(document, codec).getByteBuffer().remaining());
+            }
+            comments.record(proposal.getComments() != null ? proposal.getComments().size() : 0);
+            votes.record(proposal.getInFavorCount() + proposal.getAgainstCount());
+        }
+        return proposal;
+    }
+}
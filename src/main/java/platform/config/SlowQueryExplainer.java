@@ -0,0 +1,194 @@
+package platform.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Registra el plan de ejecución de las consultas que superan el umbral de latencia o que recorren la colección entera.
+// Los explain corren en un hilo aparte con una cola acotada: nunca suman latencia a la consulta original y,
+// si la cola se llena, se descartan.
+@Component
+@ConditionalOnProperty(prefix = "platform.mongo.slow-queries", name = "enabled", havingValue = "true")
+public class SlowQueryExplainer implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryExplainer.class);
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct");
+    // Metadatos de la sesión y del protocolo que no forman parte de la consulta
+    private static final Set<String> PROTOCOL_FIELDS = Set.of("lsid", "txnNumber", "autocommit", "startTransaction");
+
+    private final SlowQueryProperties properties;
+    private final ObjectProvider<MongoClient> mongoClient;
+    // Consultas en curso, por requestId del driver
+    private final Map<Integer, BsonDocument> running = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> seenShapes;
+    private final Cache<String, Boolean> reportedSlowShapes;
+    private final ThreadPoolExecutor explainer;
+
+    public SlowQueryExplainer(SlowQueryProperties properties, ObjectProvider<MongoClient> mongoClient) {
+        this.properties = properties;
+        // Perezoso: el cliente se construye con este listener, así que no puede inyectarse directamente
+        this.mongoClient = mongoClient;
+        this.seenShapes = Caffeine.newBuilder().maximumSize(properties.getMaximumShapes()).build();
+        this.reportedSlowShapes = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumShapes())
+                .expireAfterWrite(properties.getReportInterval())
+                .build();
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explainer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (EXPLAINABLE.contains(event.getCommandName())) {
+            // El documento del evento solo es válido durante el callback
+            running.put(event.getRequestId(), query(event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonDocument command = running.remove(event.getRequestId());
+        if (command == null) {
+            return;
+        }
+        long elapsedMillis = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        String shape = shape(command);
+        if (elapsedMillis >= properties.getThreshold().toMillis()) {
+            if (reportedSlowShapes.asMap().putIfAbsent(shape, Boolean.TRUE) == null) {
+                explain(event.getDatabaseName(), command, elapsedMillis);
+            }
+        } else if (properties.isDetectCollectionScans() && seenShapes.asMap().putIfAbsent(shape, Boolean.TRUE) == null) {
+            explain(event.getDatabaseName(), command, -1);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        running.remove(event.getRequestId());
+    }
+
+    private void explain(String database, BsonDocument command, long elapsedMillis) {
+        explainer.execute(() -> {
+            MongoClient client = mongoClient.getIfAvailable();
+            if (client == null) {
+                return;
+            }
+            try {
+                BsonDocument explain = new BsonDocument("explain", command).append("verbosity", new BsonString("queryPlanner"));
+                BsonDocument plan = client.getDatabase(database).runCommand(explain, BsonDocument.class);
+                boolean collectionScan = usesCollectionScan(plan);
+                String winningPlan = winningPlan(plan).toJson();
+                if (elapsedMillis >= 0) {
+                    log.warn("Slow query ({} ms{}): {} plan {}", elapsedMillis, collectionScan ? ", COLLSCAN" : "",
+                            command.toJson(), winningPlan);
+                } else if (collectionScan) {
+                    log.warn("Query does a collection scan: {} plan {}", command.toJson(), winningPlan);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Could not explain {}", command.toJson(), e);
+            }
+        });
+    }
+
+    // Copia del comando sin los campos del protocolo ($db, $clusterTime, lsid...)
+    static BsonDocument query(BsonDocument command) {
+        BsonDocument query = command.clone();
+        query.keySet().removeIf(key -> key.startsWith("$") || PROTOCOL_FIELDS.contains(key));
+        return query;
+    }
+
+    // Misma forma = mismo comando, colección y campos consultados, con cualquier valor
+    static String shape(BsonDocument command) {
+        StringBuilder shape = new StringBuilder();
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> entry : command.entrySet()) {
+            shape.append(entry.getKey()).append(':');
+            // El primer campo es el nombre del comando y su valor la colección
+            shape.append(first ? entry.getValue().toString() : shape(entry.getValue())).append(' ');
+            first = false;
+        }
+        return shape.toString();
+    }
+
+    private static String shape(BsonValue value) {
+        if (value.isDocument()) {
+            StringBuilder shape = new StringBuilder("{");
+            value.asDocument().forEach((key, nested) -> shape.append(key).append(':').append(shape(nested)).append(','));
+            return shape.append('}').toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            return array.isEmpty() ? "[]" : "[" + shape(array.get(0)) + "]";
+        }
+        return "?";
+    }
+
+    // En un find el plan está en queryPlanner; en un aggregate, dentro de la primera etapa ($cursor)
+    static BsonDocument winningPlan(BsonDocument explain) {
+        BsonValue planner = explain.get("queryPlanner");
+        if (planner == null && explain.isArray("stages") && !explain.getArray("stages").isEmpty()) {
+            BsonDocument cursor = explain.getArray("stages").get(0).asDocument().getDocument("$cursor", new BsonDocument());
+            planner = cursor.get("queryPlanner");
+        }
+        if (planner == null || !planner.isDocument()) {
+            return new BsonDocument();
+        }
+        return planner.asDocument().getDocument("winningPlan", new BsonDocument());
+    }
+
+    static boolean usesCollectionScan(BsonDocument explain) {
+        return containsStage(winningPlan(explain), "COLLSCAN");
+    }
+
+    private static boolean containsStage(BsonValue value, String stage) {
+        if (value.isDocument()) {
+            BsonDocument document = value.asDocument();
+            if (document.isString("stage") && stage.equals(document.getString("stage").getValue())) {
+                return true;
+            }
+            return document.values().stream().anyMatch(nested -> containsStage(nested, stage));
+        }
+        if (value.isArray()) {
+            List<BsonValue> values = value.asArray().getValues();
+            return values.stream().anyMatch(nested -> containsStage(nested, stage));
+        }
+        return false;
+    }
+}
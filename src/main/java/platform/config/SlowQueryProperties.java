@@ -0,0 +1,60 @@
+package platform.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "platform.mongo.slow-queries")
+public class SlowQueryProperties {
+
+    // Apagado por defecto: copia cada consulta mientras está en curso y pide planes a la base
+    private boolean enabled = false;
+    private Duration threshold = Duration.ofMillis(100);
+    // Pide el plan de cada forma de consulta la primera vez que aparece y lo registra si recorre la colección entera
+    private boolean detectCollectionScans = true;
+    // Una misma forma lenta se vuelve a explicar recién pasado este tiempo
+    private Duration reportInterval = Duration.ofMinutes(1);
+    private long maximumShapes = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public boolean isDetectCollectionScans() {
+        return detectCollectionScans;
+    }
+
+    public void setDetectCollectionScans(boolean detectCollectionScans) {
+        this.detectCollectionScans = detectCollectionScans;
+    }
+
+    public Duration getReportInterval() {
+        return reportInterval;
+    }
+
+    public void setReportInterval(Duration reportInterval) {
+        this.reportInterval = reportInterval;
+    }
+
+    public long getMaximumShapes() {
+        return maximumShapes;
+    }
+
+    public void setMaximumShapes(long maximumShapes) {
+        this.maximumShapes = maximumShapes;
+    }
+}
@@ -0,0 +1,71 @@
+package platform.controller;
+
+import entities.domain.CursorPage;
+import entities.domain.ProposalSummary;
+import exception.PreconditionFailedException;
+import org.springframework.util.DigestUtils;
+import platform.repository.ProposalRepositoryCustom;
+
+import java.nio.charset.StandardCharsets;
+
+// ETags fuertes derivados de las versiones de las propuestas: se calculan sin serializar el cuerpo de la respuesta
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Cualquier cambio en una propuesta de la página aumenta su versión, así que id y versión alcanzan
+    static String of(CursorPage<ProposalSummary> page) {
+        StringBuilder content = new StringBuilder(page.getItems().size() * 32);
+        for (ProposalSummary summary : page.getItems()) {
+            content.append(summary.getId()).append(':').append(summary.getVersion()).append(';');
+        }
+        content.append(page.getNextCursor());
+        return hash(content);
+    }
+
+    static String of(ProposalRepositoryCustom.Fingerprint fingerprint) {
+        return hash(fingerprint.epoch() + ":" + fingerprint.changes());
+    }
+
+    private static String hash(CharSequence content) {
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // If-None-Match usa comparación débil: se ignora el prefijo W/ de los ETags que manda el cliente
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Versión esperada según If-Match; null si el cliente no condiciona la escritura
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            throw new PreconditionFailedException("If-Match must be a single proposal ETag");
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match must be a single proposal ETag");
+        }
+    }
+}
@@ -1,29 +1,146 @@
 package platform.controller;
 
 import entities.domain.Comment;
+import entities.domain.CursorPage;
 import entities.domain.Proposal;
+import entities.domain.ProposalResult;
+import entities.domain.ProposalSearchHit;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
 import entities.domain.Vote;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import platform.live.TallyBroadcaster;
+import platform.ratelimit.RateLimited;
+import platform.service.ProposalExportService;
 import platform.service.ProposalService;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/proposals")
 public class ProposalController {
 
+    private static final String EXPORT_PERMIT = ProposalController.class.getName() + ".exportPermit";
+
     private final ProposalService service;
+    private final ProposalExportService exportService;
+    private final TallyBroadcaster broadcaster;
 
-    public ProposalController(ProposalService service) {
+    public ProposalController(ProposalService service, ProposalExportService exportService, TallyBroadcaster broadcaster) {
         this.service = service;
+        this.exportService = exportService;
+        this.broadcaster = broadcaster;
     }
 
+    // La huella de la colección se compara antes de leer las propuestas; si el cliente ya las tiene no se leen
     @PreAuthorize("hasAuthority('Mayor')")
     @GetMapping
-    public List<Proposal> getAll() {
-        return service.getAll();
+    public ResponseEntity<List<Proposal>> getAll(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ETags.of(service.getFingerprint());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(service.getAll());
+    }
+
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ProposalSummary>> list(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate limitDateFrom,
+                                            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate limitDateTo,
+                                            @RequestParam(required = false) String authorDocument,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CursorPage<ProposalSummary> page = service.list(cursor, limitDateFrom, limitDateTo, authorDocument, size);
+        String etag = ETags.of(page);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    // Ordenada por relevancia; status=open|closed filtra por estado
+    @PreAuthorize("hasAnyAuthority('Citizen', 'Mayor', 'Moderator')")
+    @GetMapping("/search")
+    public List<ProposalSearchHit> search(@RequestParam String q,
+                                          @RequestParam(required = false) String status,
+                                          @RequestParam(defaultValue = "20") int size) {
+        return service.search(q, status, size);
+    }
+
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                        HttpServletRequest request) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ProposalExportService.Export export = exportService.export(since, gzip);
+        // Si el cuerpo nunca corre, el fin del request asíncrono devuelve igual el lugar reservado
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_PERMIT, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                export.release();
+            }
+        });
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(export);
+    }
+
+    // Se compara solo la versión; el documento completo se lee únicamente si el cliente no lo tiene
+    @PreAuthorize("hasAnyAuthority('Citizen', 'Mayor', 'Moderator')")
+    @GetMapping("/{id}")
+    public ResponseEntity<Proposal> get(@PathVariable String id,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ETags.of(service.getVersion(id));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Proposal proposal = service.get(id);
+        long version = proposal.getVersion() != null ? proposal.getVersion() : 0;
+        return ResponseEntity.ok().eTag(ETags.of(version)).body(proposal);
+    }
+
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping("/{proposalId}/tally")
+    public Tally getTally(@PathVariable String proposalId) {
+        return service.getTally(proposalId);
+    }
+
+    // Resultado congelado al cerrarse la propuesta; sigue disponible después de archivar votos y comentarios
+    @PreAuthorize("hasAnyAuthority('Citizen', 'Mayor', 'Moderator')")
+    @GetMapping("/{proposalId}/result")
+    public ProposalResult getResult(@PathVariable String proposalId) {
+        return service.getResult(proposalId);
+    }
+
+    // Eventos "tally" con el conteo cada vez que cambia, a lo sumo uno por intervalo
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping(value = "/{proposalId}/tally/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTally(@PathVariable String proposalId) {
+        return broadcaster.subscribe(proposalId, service.getTally(proposalId));
     }
 
     @PreAuthorize("hasAuthority('Mayor')")
@@ -34,20 +151,34 @@ public class ProposalController {
 
     @PreAuthorize("hasAuthority('Mayor')")
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable String id) {
-        service.delete(id);
+    public void delete(@PathVariable String id,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.delete(id, ETags.expectedVersion(ifMatch));
     }
 
     @PreAuthorize("hasAuthority('Citizen')")
+    @RateLimited("comment")
     @PostMapping("/{proposalId}/comment")
-    public Proposal addComment(@PathVariable String proposalId, @RequestBody Comment comment) {
-        return service.comment(proposalId, comment);
+    public Comment addComment(@PathVariable String proposalId, @RequestBody Comment comment,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.comment(proposalId, comment, ETags.expectedVersion(ifMatch));
+    }
+
+    @PreAuthorize("hasAnyAuthority('Citizen', 'Mayor', 'Moderator')")
+    @GetMapping("/{proposalId}/comments")
+    public CursorPage<Comment> getComments(@PathVariable String proposalId,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        return service.getComments(proposalId, cursor, size);
     }
 
     @PreAuthorize("hasAuthority('Citizen')")
+    @RateLimited("vote")
     @PostMapping("/{proposalId}/vote")
-    public Proposal vote(@PathVariable String proposalId, @RequestBody Vote vote) {
-        return service.vote(proposalId, vote);
+    public ResponseEntity<Tally> vote(@PathVariable String proposalId, @RequestBody Vote vote) {
+        Tally tally = service.vote(proposalId, vote);
+        // Con la escritura diferida el voto queda aceptado pero el conteo todavía no lo incluye
+        return tally != null ? ResponseEntity.ok(tally) : ResponseEntity.accepted().build();
     }
 
 
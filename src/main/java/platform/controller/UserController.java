@@ -5,21 +5,31 @@ import entities.user.Citizen;
 import entities.user.Mayor;
 import entities.user.Moderator;
 import entities.user.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import platform.service.CitizenImportService;
 import platform.service.UserService;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final CitizenImportService citizenImportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, CitizenImportService citizenImportService) {
         this.userService = userService;
+        this.citizenImportService = citizenImportService;
     }
 
     @PreAuthorize("hasAuthority('Moderator')")
@@ -33,6 +43,17 @@ public class UserController {
         return userService.createCitizen(citizen);
     }
 
+    // Importación masiva desde el registro civil; la respuesta es un reporte NDJSON con errores por fila y progreso
+    @PreAuthorize("hasAuthority('Moderator')")
+    @PostMapping(value = "/citizens/import", consumes = {"text/csv", "application/x-ndjson"})
+    public void importCitizens(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CitizenImportService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? CitizenImportService.Format.CSV
+                : CitizenImportService.Format.NDJSON;
+        response.setContentType("application/x-ndjson");
+        citizenImportService.importCitizens(request.getInputStream(), format, response.getOutputStream());
+    }
+
     @PostMapping("/mayor")
     public String createMayor(@RequestBody Mayor mayor) {
         return userService.createMayor(mayor);
@@ -44,7 +65,7 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
        return userService.login(request.getEmail(), request.getPassword());
     }
 
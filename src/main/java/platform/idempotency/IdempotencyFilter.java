@@ -0,0 +1,209 @@
+package platform.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import platform.idempotency.IdempotencyStore.Entry;
+import platform.idempotency.IdempotencyStore.Key;
+import platform.idempotency.IdempotencyStore.StoredResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Idempotency-Key en las escrituras de /api/proposals: un reintento con la misma clave recibe la respuesta
+// guardada sin pasar por el controller. La clave queda atada al método, la ruta y el cuerpo del primer request:
+// reusarla para otro request es un error del cliente.
+// Corre después de la cadena de seguridad, así que la clave queda asociada al usuario del JWT, y después de
+// RateLimitFilter, así que un request rechazado con 429 no llega a tomar la clave en MongoDB.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String PATH_PREFIX = "/api/proposals";
+    static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final boolean enabled;
+    private final long waitTimeoutMillis;
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyProperties properties, IdempotencyStore store, ObjectMapper objectMapper) {
+        this.enabled = properties.isEnabled();
+        this.waitTimeoutMillis = properties.getWaitTimeout().toMillis();
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || request.getHeader(HEADER) == null
+                || !METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith(PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            // Sin usuario no hay a quién asociar la clave; Spring Security ya rechaza el request
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        Key key = new Key(authentication.getName(), idempotencyKey);
+        // El cuerpo se lee antes del controller para incluirlo en la huella; el controller lee la copia
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = IdempotencyStore.fingerprint(request.getMethod(), request.getRequestURI(), cachedRequest.body);
+        while (true) {
+            Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = store.claim(key, mine);
+            if (existing == null) {
+                execute(cachedRequest, response, filterChain, key, mine);
+                return;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key was already used for another request");
+                return;
+            }
+
+            StoredResponse cached;
+            try {
+                cached = existing.response().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (cached != null) {
+                replay(cached, response);
+                return;
+            }
+            // El original falló y ya liberó la clave: este request la vuelve a intentar tomar
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         Key key, Entry entry) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse cached = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (IdempotencyStore.isSuccess(wrapper.getStatus())) {
+                cached = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            store.complete(key, entry, cached);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(StoredResponse cached, HttpServletResponse response) throws IOException {
+        store.replayed();
+        response.setStatus(cached.status());
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        if (cached.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, cached.etag());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+
+    // Mismo formato que GlobalExceptionHandler, que no alcanza a los filtros
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
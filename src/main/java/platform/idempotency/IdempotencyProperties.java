@@ -0,0 +1,70 @@
+package platform.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "platform.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    // Claves compartidas entre nodos en MongoDB; false las deja solo en memoria de cada nodo (perfil in-memory)
+    private boolean shared = true;
+    private long maximumSize = 100_000;
+    // Cuánto tiempo un reintento con la misma clave recibe la respuesta guardada
+    private Duration expireAfterWrite = Duration.ofHours(1);
+    // Espera de un duplicado mientras el request original sigue en curso; después recibe 409
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    // Cada cuánto un duplicado consulta MongoDB mientras el original corre en otro nodo
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
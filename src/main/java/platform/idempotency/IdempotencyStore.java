@@ -0,0 +1,203 @@
+package platform.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import entities.domain.IdempotencyRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Claves de Idempotency-Key por usuario, compartidas por el filtro servlet y el de WebFlux.
+// La colección idempotency_keys, con índice único por (user, key), decide qué nodo ejecuta el request;
+// la caché local solo junta los duplicados que llegan al mismo nodo para que esperen sin consultar MongoDB.
+// Con shared en false (perfil in-memory) la clave vale solo en el nodo que la recibió.
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public record Key(String user, String key) {
+    }
+
+    public record StoredResponse(int status, String contentType, String etag, byte[] body) {
+    }
+
+    // Se guarda al empezar el request original: los duplicados que llegan mientras corre esperan su respuesta.
+    // La respuesta es null si el original no terminó con 2xx; en ese caso el duplicado se ejecuta normalmente.
+    public record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean shared;
+    private final Duration expireAfterWrite;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final Cache<Key, Entry> entries;
+    private final Counter replays;
+    private final ScheduledExecutorService poller;
+
+    public IdempotencyStore(IdempotencyProperties properties, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.shared = properties.isShared();
+        this.expireAfterWrite = properties.getExpireAfterWrite();
+        this.waitTimeout = properties.getWaitTimeout();
+        this.pollInterval = properties.getPollInterval();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+        this.replays = Counter.builder("idempotency.replays")
+                .description("Requests answered with the stored response of their Idempotency-Key")
+                .register(meterRegistry);
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    // null si el request tomó la clave; si no, la entrada del request que la tomó antes (en este nodo o en otro)
+    public Entry claim(Key key, Entry entry) {
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null || !shared) {
+            return existing;
+        }
+        try {
+            while (true) {
+                try {
+                    IdempotencyRecord record = new IdempotencyRecord();
+                    record.setUser(key.user());
+                    record.setKey(key.key());
+                    record.setFingerprint(entry.fingerprint());
+                    record.setExpiresAt(Instant.now().plus(expireAfterWrite));
+                    mongoTemplate.insert(record);
+                    return null;
+                } catch (DuplicateKeyException e) {
+                    IdempotencyRecord stored = mongoTemplate.findOne(recordQuery(key), IdempotencyRecord.class);
+                    if (stored == null) {
+                        // El dueño falló y la liberó entre el insert y la lectura
+                        continue;
+                    }
+                    // Otro nodo tiene la clave: esta entrada local deja de usarse, pero los duplicados que ya la
+                    // encontraron reciben la misma respuesta que el resto
+                    entries.asMap().remove(key, entry);
+                    CompletableFuture<StoredResponse> response = stored.getStatus() != null
+                            ? CompletableFuture.completedFuture(toResponse(stored))
+                            : poll(key, System.nanoTime() + waitTimeout.toNanos());
+                    response.thenAccept(entry.response()::complete);
+                    return new Entry(stored.getFingerprint(), response);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Sin MongoDB la clave no queda tomada: la entrada local se libera para que el reintento no reciba 409
+            entries.asMap().remove(key, entry);
+            entry.response().complete(null);
+            throw e;
+        }
+    }
+
+    // Solo se guardan los éxitos: un 412 o un 429 se puede reintentar con la misma clave.
+    // Vale una sola vez: en WebFlux la cancelación puede llegar después de haber guardado la respuesta.
+    public void complete(Key key, Entry entry, StoredResponse response) {
+        if (entry.response().isDone()) {
+            return;
+        }
+        try {
+            if (shared) {
+                Query query = recordQuery(key).addCriteria(where("status").exists(false));
+                if (response != null) {
+                    mongoTemplate.updateFirst(query, new Update()
+                            .set("status", response.status())
+                            .set("contentType", response.contentType())
+                            .set("etag", response.etag())
+                            .set("body", response.body()), IdempotencyRecord.class);
+                } else {
+                    mongoTemplate.remove(query, IdempotencyRecord.class);
+                }
+            }
+        } catch (DataAccessException e) {
+            // El registro queda sin respuesta hasta expiresAt: en otros nodos los duplicados reciben 409
+            log.warn("Could not record the outcome of Idempotency-Key {} for user {}", key.key(), key.user(), e);
+        } finally {
+            if (response == null) {
+                entries.asMap().remove(key, entry);
+            }
+            entry.response().complete(response);
+        }
+    }
+
+    public void replayed() {
+        replays.increment();
+    }
+
+    public static boolean isSuccess(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    // La clave identifica un request: el mismo método y ruta con el mismo cuerpo
+    public static String fingerprint(String method, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Consulta el registro de otro nodo hasta que tenga respuesta o desaparezca. Pasado el tiempo de espera
+    // deja de consultar: el duplicado ya recibió 409 y la entrada no quedó en la caché local.
+    private CompletableFuture<StoredResponse> poll(Key key, long deadline) {
+        CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        poller.schedule(() -> {
+            try {
+                IdempotencyRecord stored = mongoTemplate.findOne(recordQuery(key), IdempotencyRecord.class);
+                if (stored == null) {
+                    response.complete(null);
+                } else if (stored.getStatus() != null) {
+                    response.complete(toResponse(stored));
+                } else if (System.nanoTime() < deadline) {
+                    poll(key, deadline).thenAccept(response::complete);
+                }
+            } catch (DataAccessException e) {
+                response.completeExceptionally(e);
+            }
+        }, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    private static Query recordQuery(Key key) {
+        return Query.query(where("user").is(key.user()).and("key").is(key.key()));
+    }
+
+    private static StoredResponse toResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getStatus(), record.getContentType(), record.getEtag(),
+                record.getBody() != null ? record.getBody() : new byte[0]);
+    }
+}
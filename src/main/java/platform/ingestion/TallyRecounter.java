@@ -0,0 +1,109 @@
+package platform.ingestion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import platform.cache.ProposalReadCache;
+import platform.live.TallyBroadcaster;
+import platform.repository.ProposalRepository;
+import platform.repository.VoteRepository;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Recalcula desde la colección votes los contadores de las propuestas abiertas cuyo incremento pudo haberse perdido
+// (el voto quedó escrito pero el $inc falló). Las cerradas no se tocan: el motor de ciclo de vida congela su resultado.
+// Un voto escrito antes del conteo cuyo $inc llega después se contaría dos veces: setTally abre una época nueva y
+// ese $inc, que lleva la época leída antes de escribir el voto, se rechaza y vuelve a pedir un recálculo.
+@Component
+public class TallyRecounter {
+
+    private static final Logger log = LoggerFactory.getLogger(TallyRecounter.class);
+    // Un voto que llega entre el conteo y la escritura cambia la versión; se reintenta y, si no alcanza, en la próxima pasada
+    public static final int ATTEMPTS = 3;
+
+    private final ProposalRepository proposalRepository;
+    private final VoteRepository voteRepository;
+    private final ProposalReadCache cache;
+    private final TallyBroadcaster broadcaster;
+    private final Duration interval;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService ticker;
+
+    public TallyRecounter(ProposalRepository proposalRepository, VoteRepository voteRepository,
+                          ProposalReadCache cache, TallyBroadcaster broadcaster,
+                          @Value("${platform.votes.recount-interval:30s}") Duration interval) {
+        this.proposalRepository = proposalRepository;
+        this.voteRepository = voteRepository;
+        this.cache = cache;
+        this.broadcaster = broadcaster;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tally-recounter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::runQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    // Se recalcula en la próxima pasada: quien lo pide suele estar en medio de una falla de MongoDB
+    public void schedule(String proposalId) {
+        pending.add(proposalId);
+    }
+
+    public void recountPending() {
+        for (String proposalId : pending) {
+            if (recount(proposalId)) {
+                pending.remove(proposalId);
+            }
+        }
+    }
+
+    // true si quedó resuelta: recalculada, cerrada o borrada
+    public boolean recount(String proposalId) {
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            Boolean open = proposalRepository.isOpen(proposalId);
+            if (open == null) {
+                // El borrado pudo no ver un voto escrito justo antes
+                voteRepository.deleteByProposalId(proposalId);
+                return true;
+            }
+            if (!open) {
+                return true;
+            }
+            Long version = proposalRepository.findVersion(proposalId);
+            long inFavor = voteRepository.countByProposalIdAndInFavor(proposalId, true);
+            long against = voteRepository.countByProposalIdAndInFavor(proposalId, false);
+            if (version != null && proposalRepository.setTally(proposalId, version, inFavor, against)) {
+                cache.votesChanged(proposalId);
+                broadcaster.tallyChanged(proposalId);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runQuietly() {
+        try {
+            recountPending();
+        } catch (Exception e) {
+            log.warn("Tally recount failed, it will be retried", e);
+        }
+    }
+}
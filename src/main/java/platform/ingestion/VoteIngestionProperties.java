@@ -0,0 +1,76 @@
+package platform.ingestion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "platform.votes.ingestion")
+public class VoteIngestionProperties {
+    // direct: cada voto se escribe en MongoDB dentro del request; write-behind: se acepta en el buffer local
+    private String mode = "direct";
+    private String journalDirectory = "data/vote-journal";
+    private boolean syncWrites = true;
+    private int maxPending = 50_000;
+    private int flushSize = 1_000;
+    private Duration flushInterval = Duration.ofMillis(500);
+    // Cuánto se recuerda si una propuesta está abierta antes de volver a consultarlo al aceptar un voto
+    private Duration openCacheTtl = Duration.ofSeconds(5);
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public void setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    public boolean isSyncWrites() {
+        return syncWrites;
+    }
+
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getOpenCacheTtl() {
+        return openCacheTtl;
+    }
+
+    public void setOpenCacheTtl(Duration openCacheTtl) {
+        this.openCacheTtl = openCacheTtl;
+    }
+}
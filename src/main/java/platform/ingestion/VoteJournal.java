@@ -0,0 +1,139 @@
+package platform.ingestion;
+
+import entities.domain.Vote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Registro append-only de los votos aceptados, dividido en segmentos que se borran una vez persistidos en MongoDB
+class VoteJournal implements Closeable {
+
+    private static final String PREFIX = "votes-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean syncWrites;
+    private FileChannel active;
+    private long activeSequence;
+    // Group commit: un solo fsync confirma todas las escrituras hechas hasta ese momento
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile long appended;
+    private volatile long synced;
+
+    VoteJournal(Path directory, boolean syncWrites) throws IOException {
+        this.directory = directory;
+        this.syncWrites = syncWrites;
+        Files.createDirectories(directory);
+        this.activeSequence = sealedSequences().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        this.active = open(activeSequence);
+    }
+
+    // Lee los segmentos que quedaron de una ejecución anterior, en el orden en que se escribieron
+    List<Vote> replay() throws IOException {
+        List<Vote> votes = new ArrayList<>();
+        for (long sequence : sealedSequences()) {
+            for (String line : Files.readAllLines(segment(sequence), StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                // Una línea incompleta es la última escritura antes de la caída y nunca fue confirmada
+                if (fields.length != 3) continue;
+                Vote vote = new Vote();
+                vote.setProposalId(fields[0]);
+                vote.setUserDocument(fields[1]);
+                vote.setInFavor("1".equals(fields[2]));
+                votes.add(vote);
+            }
+        }
+        return votes;
+    }
+
+    // Escribe el voto sin forzarlo a disco; devuelve el número de escritura que hay que pasarle a sync
+    // Lo invoca un solo hilo a la vez (el buffer lo llama con su lock tomado)
+    long append(Vote vote) throws IOException {
+        String line = vote.getProposalId() + "\t" + vote.getUserDocument() + "\t" + (vote.isInFavor() ? "1" : "0") + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            active.write(buffer);
+        }
+        return ++appended;
+    }
+
+    // Espera a que la escritura quede en disco; el primer hilo que toma el lock hace un fsync por todos los que
+    // escribieron antes que él, y los demás vuelven sin hacer el suyo
+    void sync(long write) throws IOException {
+        if (!syncWrites || synced >= write) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= write) {
+                return;
+            }
+            long upTo = appended;
+            active.force(false);
+            synced = upTo;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Cierra el segmento activo y abre uno nuevo; devuelve la secuencia del segmento cerrado
+    long rotate() throws IOException {
+        syncLock.lock();
+        try {
+            // Close no hace fsync: lo escrito y todavía no confirmado se fuerza antes de soltar el segmento
+            if (syncWrites) {
+                long upTo = appended;
+                active.force(false);
+                synced = upTo;
+            }
+            active.close();
+            long sealed = activeSequence++;
+            active = open(activeSequence);
+            return sealed;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    void deleteUpTo(long sequence) throws IOException {
+        for (long sealed : sealedSequences()) {
+            if (sealed <= sequence) {
+                Files.deleteIfExists(segment(sealed));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        active.close();
+    }
+
+    private List<Long> sealedSequences() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .filter(sequence -> sequence != activeSequence || active == null)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private FileChannel open(long sequence) throws IOException {
+        return FileChannel.open(segment(sequence), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segment(long sequence) {
+        return directory.resolve(PREFIX + String.format("%012d", sequence) + SUFFIX);
+    }
+}
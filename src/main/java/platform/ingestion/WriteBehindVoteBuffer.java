@@ -0,0 +1,270 @@
+package platform.ingestion;
+
+import entities.domain.Tally;
+import entities.domain.Vote;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import exception.BadRequestException;
+import exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import platform.cache.ProposalReadCache;
+import platform.live.TallyBroadcaster;
+import platform.repository.ProposalRepository;
+import platform.repository.VoteRepository;
+import platform.repository.VoteRepositoryCustom.Change;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Acepta votos en un registro local y los escribe en MongoDB por lotes, fusionando los votos repetidos de un ciudadano
+@Component
+@ConditionalOnProperty(prefix = "platform.votes.ingestion", name = "mode", havingValue = "write-behind")
+public class WriteBehindVoteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindVoteBuffer.class);
+
+    private final VoteIngestionProperties properties;
+    private final VoteRepository voteRepository;
+    private final ProposalRepository proposalRepository;
+    private final ProposalReadCache cache;
+    private final TallyBroadcaster broadcaster;
+    private final TallyRecounter recounter;
+    // Estado de las propuestas votadas hace poco; Optional vacío recuerda también las que no existen
+    private final Cache<String, Optional<Boolean>> openProposals;
+
+    // Solo cubre la escritura en el journal y el mapa; el fsync se hace afuera, agrupado con el de otros votos
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private Map<VoteKey, Vote> pending = new LinkedHashMap<>();
+    // Lote que no se pudo escribir y se reintenta en el próximo flush, junto con lo nuevo
+    private Map<VoteKey, Vote> failed = new LinkedHashMap<>();
+    // Votos del lote que se está escribiendo: siguen en memoria hasta que termina el flush y cuentan para maxPending
+    private int inFlight;
+    // Propuestas con votos recuperados tras una caída: se recalculan sus contadores después de escribirlos
+    private final Set<String> recount = new HashSet<>();
+    private VoteJournal journal;
+    private ScheduledExecutorService flusher;
+
+    public WriteBehindVoteBuffer(VoteIngestionProperties properties, VoteRepository voteRepository,
+                                 ProposalRepository proposalRepository, ProposalReadCache cache,
+                                 TallyBroadcaster broadcaster, TallyRecounter recounter) {
+        this.properties = properties;
+        this.voteRepository = voteRepository;
+        this.proposalRepository = proposalRepository;
+        this.cache = cache;
+        this.broadcaster = broadcaster;
+        this.recounter = recounter;
+        this.openProposals = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(properties.getOpenCacheTtl())
+                .build();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new VoteJournal(Path.of(properties.getJournalDirectory()), properties.isSyncWrites());
+
+        List<Vote> replayed = journal.replay();
+        for (Vote vote : replayed) {
+            pending.put(VoteKey.of(vote), vote);
+            recount.add(vote.getProposalId());
+        }
+        if (!replayed.isEmpty()) {
+            log.info("Replaying {} unflushed votes from {}", replayed.size(), properties.getJournalDirectory());
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vote-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void accept(Vote vote) {
+        // Un id inexistente o cerrado se rechaza acá y no al escribir el lote, donde ya habría ocupado lugar en el buffer
+        Optional<Boolean> open = openProposals.get(vote.getProposalId(),
+                proposalId -> Optional.ofNullable(proposalRepository.isOpen(proposalId)));
+        if (open.isEmpty()) {
+            throw new BadRequestException("Proposal not found");
+        }
+        if (!open.get()) {
+            throw new BadRequestException("Proposal is closed");
+        }
+
+        VoteKey key = VoteKey.of(vote);
+        int size;
+        long write;
+        lock.lock();
+        try {
+            if (pending.size() + failed.size() + inFlight >= properties.getMaxPending() && !pending.containsKey(key)) {
+                throw new TooManyRequestsException("Vote buffer is full", 1);
+            }
+            try {
+                write = journal.append(vote);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not append vote to journal", e);
+            }
+            pending.put(key, vote);
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+
+        // El voto se confirma recién cuando está en disco; si el fsync falla queda en el lote igual que un voto cuya
+        // respuesta se perdió, y el reintento del ciudadano lo reemplaza
+        try {
+            journal.sync(write);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync vote journal", e);
+        }
+
+        if (size >= properties.getFlushSize() && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // La aplicación se está apagando: el voto ya está en el journal y lo escribe el flush de stop o el próximo arranque
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    // Solo se invoca desde el hilo vote-flusher (o al apagar la aplicación, cuando ese hilo ya terminó)
+    public void flush() throws IOException {
+        Map<VoteKey, Vote> batch;
+        long sealed;
+        lock.lock();
+        try {
+            flushRequested.set(false);
+            if (pending.isEmpty() && failed.isEmpty()) {
+                return;
+            }
+            batch = failed;
+            // Los votos nuevos reemplazan a los del lote fallido del mismo ciudadano
+            batch.putAll(pending);
+            failed = new LinkedHashMap<>();
+            pending = new LinkedHashMap<>();
+            inFlight = batch.size();
+            sealed = journal.rotate();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            write(new ArrayList<>(batch.values()));
+        } catch (RuntimeException e) {
+            // Parte del lote pudo haberse escrito, así que los contadores de esas propuestas se recalculan luego
+            batch.values().forEach(vote -> recount.add(vote.getProposalId()));
+            lock.lock();
+            try {
+                failed = batch;
+                inFlight = 0;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            inFlight = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        journal.deleteUpTo(sealed);
+        recountTallies();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Vote flush failed, it will be retried", e);
+        }
+    }
+
+    private void write(List<Vote> votes) {
+        Set<String> proposals = new HashSet<>();
+        votes.forEach(vote -> proposals.add(vote.getProposalId()));
+        // La época de cada propuesta se lee antes de escribir los votos, igual que en el voto directo
+        Map<String, Long> tallyEpochs = proposalRepository.findOpenTallyEpochs(proposals);
+        int before = votes.size();
+        votes.removeIf(vote -> !tallyEpochs.containsKey(vote.getProposalId()));
+        if (votes.size() < before) {
+            log.warn("Discarded {} buffered votes for proposals that are closed or no longer exist", before - votes.size());
+        }
+
+        // El lote va en una sola escritura masiva; el delta de cada voto sale de lo que esa misma escritura cambió, así
+        // dos nodos que escriben a la vez el voto de un ciudadano no lo cuentan dos veces
+        List<Change> changes = voteRepository.upsertAll(votes);
+        Map<String, Tally> deltas = new HashMap<>();
+        for (int i = 0; i < votes.size(); i++) {
+            Change change = changes.get(i);
+            if (change == Change.UNCHANGED) continue;
+            Vote vote = votes.get(i);
+            Tally delta = deltas.computeIfAbsent(vote.getProposalId(), id -> new Tally(id, 0, 0));
+            if (vote.isInFavor()) {
+                delta.setInFavor(delta.getInFavor() + 1);
+                if (change == Change.CHANGED) delta.setAgainst(delta.getAgainst() - 1);
+            } else {
+                delta.setAgainst(delta.getAgainst() + 1);
+                if (change == Change.CHANGED) delta.setInFavor(delta.getInFavor() - 1);
+            }
+        }
+
+        if (!proposalRepository.incrementTallies(deltas.values(), tallyEpochs)) {
+            // Un recálculo o un borrado se cruzó con el lote: no se sabe si el conteo incluyó estos votos
+            deltas.keySet().forEach(recounter::schedule);
+        }
+        cache.votesChanged(deltas.keySet());
+        deltas.keySet().forEach(broadcaster::tallyChanged);
+    }
+
+    // Tras una caída o un lote fallido no se sabe si los deltas llegaron a aplicarse, así que se recalculan
+    private void recountTallies() {
+        for (String proposalId : recount) {
+            if (!recounter.recount(proposalId)) {
+                recounter.schedule(proposalId);
+            }
+        }
+        recount.clear();
+    }
+
+    private record VoteKey(String proposalId, String userDocument) {
+        static VoteKey of(Vote vote) {
+            return new VoteKey(vote.getProposalId(), vote.getUserDocument());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package platform.lifecycle;
+
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import entities.domain.ProposalResult;
+import entities.domain.Vote;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import platform.cache.ProposalReadCache;
+import platform.live.TallyBroadcaster;
+import platform.repository.ProposalChangeCounter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Cierra las propuestas cuyo limitDate ya pasó, congela su resultado en proposal_results y, pasado archive-after,
+// mueve sus votos y comentarios a las colecciones de archivo para que la colección activa no crezca con los años.
+// Cada paso es una escritura condicional, así que varios nodos pueden correrlo a la vez y se retoma tras una caída.
+@Component
+@ConditionalOnProperty(prefix = "platform.lifecycle", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProposalLifecycleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ProposalLifecycleEngine.class);
+    static final String ARCHIVED_VOTES = "archived_votes";
+    static final String ARCHIVED_COMMENTS = "archived_comments";
+
+    private final ProposalLifecycleProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ProposalReadCache cache;
+    private final TallyBroadcaster broadcaster;
+    private final ProposalChangeCounter changes;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean indexesCreated;
+
+    public ProposalLifecycleEngine(ProposalLifecycleProperties properties, MongoTemplate mongoTemplate,
+                                   ProposalReadCache cache, TallyBroadcaster broadcaster, ProposalChangeCounter changes) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.cache = cache;
+        this.broadcaster = broadcaster;
+        this.changes = changes;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "proposal-lifecycle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        // Los índices se crean en el hilo del motor: arrancar el contexto no requiere que MongoDB responda
+        scheduler.execute(() -> {
+            try {
+                ensureArchiveIndexes();
+            } catch (Exception e) {
+                log.warn("Archive indexes could not be created, they will be retried on the next run", e);
+            }
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            log.warn("Proposal lifecycle run failed, it will be retried", e);
+        }
+    }
+
+    public void run() {
+        ensureArchiveIndexes();
+        int closed = closeExpired();
+        int archived = archiveClosed();
+        if (closed > 0 || archived > 0) {
+            log.info("Proposal lifecycle: {} closed, {} archived", closed, archived);
+        }
+    }
+
+    // Las colecciones de archivo no tienen entidad, así que sus índices se crean acá
+    private void ensureArchiveIndexes() {
+        if (indexesCreated) {
+            return;
+        }
+        Index byProposal = new Index().on("proposalId", Sort.Direction.ASC).named("proposal");
+        mongoTemplate.indexOps(ARCHIVED_VOTES).ensureIndex(byProposal);
+        mongoTemplate.indexOps(ARCHIVED_COMMENTS).ensureIndex(byProposal);
+        indexesCreated = true;
+    }
+
+    int closeExpired() {
+        int closed = 0;
+        List<String> batch;
+        do {
+            // Usa el índice de limitDate; las ya cerradas quedan afuera por closedAt
+            Query expired = Query.query(expiredCriteria()).limit(properties.getBatchSize());
+            expired.fields().include("id");
+            batch = mongoTemplate.find(expired, Proposal.class).stream().map(Proposal::getId).toList();
+            for (String proposalId : batch) {
+                if (close(proposalId)) {
+                    closed++;
+                }
+            }
+        } while (batch.size() == properties.getBatchSize());
+        return closed;
+    }
+
+    int archiveClosed() {
+        Instant cutoff = Instant.now().minus(properties.getArchiveAfter());
+        int archived = 0;
+        List<String> batch;
+        do {
+            // Las que otro nodo está archivando quedan afuera, si no el ciclo las volvería a leer sin poder tomarlas
+            Query pending = Query.query(where("closedAt").lte(cutoff).and("archivedAt").is(null)
+                            .andOperator(archiveClaimable(Instant.now())))
+                    .limit(properties.getBatchSize());
+            pending.fields().include("id");
+            batch = mongoTemplate.find(pending, Proposal.class).stream().map(Proposal::getId).toList();
+            for (String proposalId : batch) {
+                if (archive(proposalId)) {
+                    archived++;
+                }
+            }
+        } while (batch.size() == properties.getBatchSize());
+        return archived;
+    }
+
+    private static Criteria expiredCriteria() {
+        return where("closedAt").is(null).and("limitDate").lt(LocalDate.now());
+    }
+
+    private Criteria archiveClaimable(Instant now) {
+        return new Criteria().orOperator(where("archivingAt").is(null),
+                where("archivingAt").lt(now.minus(properties.getArchiveClaimTimeout())));
+    }
+
+    // Solo el nodo que logra marcar closedAt congela el resultado
+    private boolean close(String proposalId) {
+        Instant now = Instant.now();
+        Update close = new Update().set("closedAt", now).set("updatedAt", now).inc("version", 1);
+        long modified = mongoTemplate.updateFirst(Query.query(where("id").is(proposalId).andOperator(expiredCriteria())),
+                close, Proposal.class).getModifiedCount();
+        if (modified == 0) {
+            return false;
+        }
+        changes.increment();
+        freeze(proposalId);
+        return true;
+    }
+
+    // Recalcula los contadores desde los votos, que son la fuente de verdad, y guarda el resultado compacto
+    private void freeze(String proposalId) {
+        long inFavor = mongoTemplate.count(Query.query(where("proposalId").is(proposalId).and("inFavor").is(true)), Vote.class);
+        long against = mongoTemplate.count(Query.query(where("proposalId").is(proposalId).and("inFavor").is(false)), Vote.class);
+        // Como toda escritura de la propuesta, cambia la versión: el ETag de un GET anterior deja de servir
+        mongoTemplate.updateFirst(Query.query(where("id").is(proposalId)),
+                new Update().set("inFavorCount", inFavor).set("againstCount", against)
+                        .set("updatedAt", Instant.now()).inc("version", 1), Proposal.class);
+        changes.increment();
+
+        // Los comentarios se cuentan en el servidor, sin traer el arreglo
+        ProposalResult result = mongoTemplate.aggregate(Aggregation.newAggregation(Proposal.class,
+                        Aggregation.match(where("id").is(proposalId)),
+                        Aggregation.project("title", "authorDocument", "limitDate", "closedAt")
+                                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("comments").then(List.of())))
+                                .as("commentCount")),
+                ProposalResult.class).getUniqueMappedResult();
+        if (result == null) {
+            return;
+        }
+        // Tras un archivo interrumpido los comentarios pueden estar ya fuera del documento
+        ProposalResult previous = mongoTemplate.findById(proposalId, ProposalResult.class);
+        if (previous != null) {
+            result.setCommentCount(Math.max(previous.getCommentCount(), result.getCommentCount()));
+        }
+        result.setInFavorCount(inFavor);
+        result.setAgainstCount(against);
+        mongoTemplate.save(result);
+
+        cache.invalidate(proposalId);
+        broadcaster.tallyChanged(proposalId);
+    }
+
+    // Solo el nodo que logra marcar archivingAt archiva. El recálculo va antes de mover el primer voto: al retomar un
+    // archivo cortado parte de los votos ya está en archived_votes, y contar solo votes dejaría contadores parciales
+    private boolean archive(String proposalId) {
+        Instant claimedAt = Instant.now();
+        Query claim = Query.query(where("id").is(proposalId).and("archivedAt").is(null).andOperator(archiveClaimable(claimedAt)));
+        claim.fields().include("archivingAt");
+        Proposal claimed = mongoTemplate.findAndModify(claim, new Update().set("archivingAt", claimedAt),
+                FindAndModifyOptions.options().returnNew(false), Proposal.class);
+        if (claimed == null) {
+            return false;
+        }
+        if (claimed.getArchivingAt() == null) {
+            freeze(proposalId);
+        }
+        moveVotes(proposalId);
+        moveComments(proposalId);
+
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(Query.query(where("id").is(proposalId)),
+                new Update().unset("comments").unset("archivingAt").set("archivedAt", now).set("updatedAt", now).inc("version", 1),
+                Proposal.class);
+        changes.increment();
+        mongoTemplate.updateFirst(Query.query(where("id").is(proposalId)),
+                new Update().set("archivedAt", now), ProposalResult.class);
+        cache.invalidate(proposalId);
+        return true;
+    }
+
+    // Copia un lote al archivo y recién después lo borra: si se corta en el medio, el próximo intento repite el lote
+    private void moveVotes(String proposalId) {
+        String votes = mongoTemplate.getCollectionName(Vote.class);
+        List<Document> batch;
+        do {
+            Query query = Query.query(where("proposalId").is(proposalId)).limit(properties.getBatchSize());
+            batch = mongoTemplate.find(query, Document.class, votes);
+            if (batch.isEmpty()) {
+                break;
+            }
+            insertIgnoringDuplicates(ARCHIVED_VOTES, batch);
+            List<Object> ids = batch.stream().map(vote -> vote.get("_id")).toList();
+            mongoTemplate.remove(Query.query(where("_id").in(ids)), votes);
+        } while (batch.size() == properties.getBatchSize());
+    }
+
+    private void moveComments(String proposalId) {
+        Query query = Query.query(where("id").is(proposalId));
+        query.fields().include("comments");
+        Proposal proposal = mongoTemplate.findOne(query, Proposal.class);
+        List<Comment> comments = proposal != null && proposal.getComments() != null ? proposal.getComments() : List.of();
+        for (int from = 0; from < comments.size(); from += properties.getBatchSize()) {
+            List<Document> batch = comments.subList(from, Math.min(from + properties.getBatchSize(), comments.size())).stream()
+                    .map(comment -> {
+                        Document archived = new Document();
+                        mongoTemplate.getConverter().write(comment, archived);
+                        archived.remove("_class");
+                        archived.putIfAbsent("_id", new ObjectId().toHexString());
+                        archived.put("proposalId", proposalId);
+                        return archived;
+                    })
+                    .toList();
+            insertIgnoringDuplicates(ARCHIVED_COMMENTS, batch);
+        }
+    }
+
+    // Un duplicado significa que el lote ya se había copiado en un intento anterior
+    private void insertIgnoringDuplicates(String collection, List<Document> documents) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        bulk.insert(documents);
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != 11000)) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package platform.lifecycle;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "platform.lifecycle")
+public class ProposalLifecycleProperties {
+
+    private boolean enabled = true;
+    private Duration interval = Duration.ofMinutes(1);
+    // Propuestas procesadas por consulta, y votos o comentarios movidos por escritura bulk
+    private int batchSize = 500;
+    // Espera entre el cierre y el archivo: los votos que estaban en vuelo al cerrar se cuentan en el recálculo final
+    private Duration archiveAfter = Duration.ofDays(1);
+    // Pasado este tiempo, un archivo que otro nodo empezó y no terminó se considera abandonado y se retoma
+    private Duration archiveClaimTimeout = Duration.ofMinutes(15);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getArchiveAfter() {
+        return archiveAfter;
+    }
+
+    public void setArchiveAfter(Duration archiveAfter) {
+        this.archiveAfter = archiveAfter;
+    }
+
+    public Duration getArchiveClaimTimeout() {
+        return archiveClaimTimeout;
+    }
+
+    public void setArchiveClaimTimeout(Duration archiveClaimTimeout) {
+        this.archiveClaimTimeout = archiveClaimTimeout;
+    }
+}
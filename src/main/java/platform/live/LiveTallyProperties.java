@@ -0,0 +1,70 @@
+package platform.live;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "platform.live.tally")
+public class LiveTallyProperties {
+
+    // Como máximo un frame por propuesta en cada intervalo, sin importar cuántos votos lleguen
+    private Duration interval = Duration.ofSeconds(1);
+    // Relectura de todas las propuestas observadas, para reflejar los votos recibidos por otros nodos
+    private Duration refreshInterval = Duration.ofSeconds(5);
+    // Comentario SSE para que los proxies no corten la conexión y detectar clientes desconectados
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+    // Al vencer, EventSource se reconecta solo
+    private Duration timeout = Duration.ofMinutes(30);
+    private int maxSubscribers = 10_000;
+    private long retryAfterSeconds = 30;
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,247 @@
+package platform.live;
+
+import entities.domain.Tally;
+import exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import platform.repository.ProposalRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Envía por SSE los cambios de conteo de cada propuesta observada, agrupando los votos de cada intervalo en un frame.
+// Cada suscriptor tiene un único frame pendiente que se reemplaza por el más nuevo: un cliente lento recibe menos
+// frames pero nunca acumula memoria ni demora a los demás, porque cada envío corre en su propio hilo virtual.
+@Component
+public class TallyBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(TallyBroadcaster.class);
+    private static final Object HEARTBEAT = new Object();
+
+    private final LiveTallyProperties properties;
+    private final ProposalRepository repository;
+    private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
+    // Propuestas observadas que recibieron votos en este nodo desde el último intervalo
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter frames;
+    private final Counter coalesced;
+    private ScheduledExecutorService ticker;
+    private long lastRefresh;
+    private long lastHeartbeat;
+
+    public TallyBroadcaster(LiveTallyProperties properties, ProposalRepository repository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        Gauge.builder("live.tally.subscribers", subscribers, AtomicInteger::get)
+                .description("Open tally SSE streams")
+                .register(meterRegistry);
+        this.frames = Counter.builder("live.tally.frames")
+                .description("Tally frames written to subscribers")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("live.tally.coalesced")
+                .description("Tally frames replaced by a newer one before a slow subscriber received them")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tally-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        lastRefresh = lastHeartbeat = System.nanoTime();
+        ticker.scheduleWithFixedDelay(this::tickQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    // El primer frame es el conteo actual, para que el cliente no espere al próximo voto
+    public SseEmitter subscribe(String proposalId, Tally current) {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new TooManyRequestsException("Too many live tally subscribers", properties.getRetryAfterSeconds());
+        }
+        Subscriber subscriber = new Subscriber(proposalId, new SseEmitter(properties.getTimeout().toMillis()));
+        channels.compute(proposalId, (id, channel) -> {
+            Channel target = channel != null ? channel : new Channel(current);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        subscriber.emitter.onCompletion(subscriber::detach);
+        subscriber.emitter.onTimeout(subscriber::detach);
+        subscriber.emitter.onError(e -> subscriber.detach());
+        subscriber.offer(current);
+        return subscriber.emitter;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        channels.computeIfPresent(subscriber.proposalId, (id, channel) -> {
+            if (channel.subscribers.remove(subscriber)) {
+                subscribers.decrementAndGet();
+            }
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    // Se llama en cada voto: solo marca la propuesta, la lectura y el envío quedan para el próximo intervalo
+    public void tallyChanged(String proposalId) {
+        if (channels.containsKey(proposalId)) {
+            changed.add(proposalId);
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.warn("Live tally broadcast failed, it will be retried", e);
+        }
+    }
+
+    void tick() {
+        long now = System.nanoTime();
+        List<String> due = new ArrayList<>();
+        if (now - lastRefresh >= properties.getRefreshInterval().toNanos()) {
+            lastRefresh = now;
+            changed.clear();
+            due.addAll(channels.keySet());
+        } else {
+            for (Iterator<String> iterator = changed.iterator(); iterator.hasNext(); ) {
+                due.add(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        // Una lectura por propuesta e intervalo, compartida por todos sus suscriptores
+        for (String proposalId : due) {
+            Channel channel = channels.get(proposalId);
+            if (channel == null) {
+                continue;
+            }
+            Tally tally = repository.findTally(proposalId);
+            if (tally == null) {
+                // La propuesta se borró: se cierran sus streams
+                channel.subscribers.forEach(subscriber -> {
+                    subscriber.detach();
+                    subscriber.emitter.complete();
+                });
+            } else if (!sameCounts(tally, channel.lastSent)) {
+                channel.lastSent = tally;
+                channel.subscribers.forEach(subscriber -> subscriber.offer(tally));
+            }
+        }
+
+        if (now - lastHeartbeat >= properties.getHeartbeatInterval().toNanos()) {
+            lastHeartbeat = now;
+            channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+        }
+    }
+
+    private static boolean sameCounts(Tally tally, Tally other) {
+        return other != null && tally.getInFavor() == other.getInFavor() && tally.getAgainst() == other.getAgainst();
+    }
+
+    int subscriberCount() {
+        return subscribers.get();
+    }
+
+    private static final class Channel {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        // Solo lo escribe el hilo tally-broadcaster
+        private volatile Tally lastSent;
+
+        Channel(Tally initial) {
+            this.lastSent = initial;
+        }
+    }
+
+    private final class Subscriber {
+        private final String proposalId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(String proposalId, SseEmitter emitter) {
+            this.proposalId = proposalId;
+            this.emitter = emitter;
+        }
+
+        // Puede llamarse varias veces: desde los callbacks del emitter y desde el propio broadcaster
+        void detach() {
+            closed = true;
+            unsubscribe(this);
+        }
+
+        void offer(Object frame) {
+            if (closed) {
+                return;
+            }
+            if (frame == HEARTBEAT) {
+                // El heartbeat no reemplaza un conteo pendiente
+                pending.compareAndSet(null, HEARTBEAT);
+            } else if (pending.getAndSet(frame) instanceof Tally) {
+                coalesced.increment();
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // A lo sumo un envío en curso por suscriptor; si el socket está lleno solo se bloquea este hilo virtual
+        private void drain() {
+            try {
+                Object frame;
+                while (!closed && (frame = pending.getAndSet(null)) != null) {
+                    if (frame == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("tally").data(frame, MediaType.APPLICATION_JSON));
+                        frames.increment();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconectó o el stream ya terminó
+                detach();
+                emitter.completeWithError(e);
+            } finally {
+                sending.set(false);
+            }
+            // Un frame que llegó entre la última lectura y el set(false) no puede quedar sin enviar
+            if (!closed && pending.get() != null && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
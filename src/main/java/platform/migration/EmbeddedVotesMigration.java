@@ -0,0 +1,131 @@
+package platform.migration;
+
+import entities.domain.Proposal;
+import entities.domain.Vote;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import platform.ingestion.TallyRecounter;
+import platform.repository.ProposalChangeCounter;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Mueve los votos que quedaron embebidos en proposals.votes a la colección votes, por lotes.
+// Corre antes de que el servidor web acepte requests, así ningún voto de este nodo se cruza con el recálculo.
+@Component
+@ConditionalOnProperty(prefix = "platform.migrations.embedded-votes", name = "enabled", havingValue = "true")
+public class EmbeddedVotesMigration implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedVotesMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ProposalChangeCounter changes;
+    private final TallyRecounter recounter;
+    private final int batchSize;
+    private volatile boolean running;
+
+    public EmbeddedVotesMigration(MongoTemplate mongoTemplate, ProposalChangeCounter changes, TallyRecounter recounter,
+                                  @Value("${platform.migrations.embedded-votes.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.changes = changes;
+        this.recounter = recounter;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void start() {
+        migrate();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Después de MongoIndexInitializer (fase 0), que crea el índice único de votes, y antes que el servidor web
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    public void migrate() {
+        String proposals = mongoTemplate.getCollectionName(Proposal.class);
+
+        Query pending = Query.query(where("votes").exists(true));
+        pending.fields().include("_id");
+        List<Object> proposalIds = mongoTemplate.find(pending, Document.class, proposals).stream()
+                .map(proposal -> proposal.get("_id"))
+                .toList();
+
+        log.info("Migrating embedded votes of {} proposals", proposalIds.size());
+        for (Object proposalId : proposalIds) {
+            migrateProposal(proposals, proposalId);
+        }
+    }
+
+    private void migrateProposal(String proposals, Object proposalId) {
+        Query byId = Query.query(where("_id").is(proposalId));
+        byId.fields().include("votes");
+        Document proposal = mongoTemplate.findOne(byId, Document.class, proposals);
+        if (proposal == null) {
+            return;
+        }
+
+        String id = proposalId.toString();
+        List<Document> votes = proposal.getList("votes", Document.class, List.of());
+        for (int from = 0; from < votes.size(); from += batchSize) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+            for (Document vote : votes.subList(from, Math.min(from + batchSize, votes.size()))) {
+                Query key = Query.query(where("proposalId").is(id).and("userDocument").is(vote.getString("userDocument")));
+                // setOnInsert: si el ciudadano ya votó por la nueva vía, su voto más reciente se conserva
+                bulk.upsert(key, new Update().setOnInsert("inFavor", vote.getBoolean("inFavor", false)));
+            }
+            bulk.execute();
+        }
+
+        // Otros nodos ya pueden estar recibiendo votos: el recálculo solo se escribe si nadie cambió la propuesta
+        // desde que se contó, y abre una época nueva como el de TallyRecounter para rechazar los $inc de votos que
+        // el conteo ya incluyó. Si los votos no dan respiro, los contadores quedan para la próxima pasada del recálculo
+        for (int attempt = 0; attempt < TallyRecounter.ATTEMPTS; attempt++) {
+            Query versionQuery = Query.query(where("_id").is(proposalId));
+            versionQuery.fields().include("version");
+            Document current = mongoTemplate.findOne(versionQuery, Document.class, proposals);
+            if (current == null) {
+                return;
+            }
+            Object version = current.get("version");
+            long inFavor = mongoTemplate.count(Query.query(where("proposalId").is(id).and("inFavor").is(true)), Vote.class);
+            long against = mongoTemplate.count(Query.query(where("proposalId").is(id).and("inFavor").is(false)), Vote.class);
+            Update update = new Update().unset("votes").set("inFavorCount", inFavor).set("againstCount", against)
+                    .inc("tallyEpoch", 1).inc("version", 1);
+            if (mongoTemplate.updateFirst(Query.query(where("_id").is(proposalId).and("version").is(version)), update, proposals)
+                    .getMatchedCount() > 0) {
+                changes.increment();
+                log.info("Migrated {} embedded votes of proposal {}", votes.size(), id);
+                return;
+            }
+        }
+
+        // Los votos ya están en la colección votes: se quita el arreglo igual para no volver a migrarlo
+        mongoTemplate.updateFirst(Query.query(where("_id").is(proposalId)), new Update().unset("votes").inc("version", 1), proposals);
+        changes.increment();
+        recounter.schedule(id);
+        log.warn("Migrated {} embedded votes of proposal {}, its tally will be recounted", votes.size(), id);
+    }
+}
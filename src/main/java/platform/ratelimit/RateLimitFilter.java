@@ -0,0 +1,95 @@
+package platform.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exception.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Corre después de JwtFilter y antes de IdempotencyFilter: un request rechazado no llega a leer ni escribir en
+// MongoDB, ni siquiera para tomar su Idempotency-Key. Por eso un reintento con la misma clave también consume un token.
+// Es un filtro y no un interceptor para poder ordenarlo antes de IdempotencyFilter; resuelve el handler para leer
+// la anotación igual que ReactiveRateLimitFilter.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                           ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.handlerMapping = handlerMapping;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimited limited = rateLimited(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (limited != null && authentication != null && authentication.isAuthenticated()) {
+            try {
+                // El subject del JWT, que JwtFilter dejó en el contexto
+                rateLimiter.acquire(limited.value(), authentication.getName());
+            } catch (TooManyRequestsException e) {
+                tooManyRequests(response, e);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimited rateLimited(HttpServletRequest request) {
+        // El mapping lee la ruta ya parseada; DispatcherServlet la vuelve a parsear después
+        Object previous = request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE);
+        ServletRequestPathUtils.parseAndCache(request);
+        try {
+            HandlerExecutionChain chain = handlerMapping.getHandler(request);
+            if (chain != null && chain.getHandler() instanceof HandlerMethod method) {
+                return method.getMethodAnnotation(RateLimited.class);
+            }
+            return null;
+        } catch (Exception e) {
+            // Un request sin handler (404, 405) sigue de largo: DispatcherServlet arma ese error
+            return null;
+        } finally {
+            request.setAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE, previous);
+        }
+    }
+
+    // Mismo formato y Retry-After que GlobalExceptionHandler, que no alcanza a los filtros
+    private void tooManyRequests(HttpServletResponse response, TooManyRequestsException e) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", e.getMessage());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
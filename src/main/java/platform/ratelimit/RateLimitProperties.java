@@ -0,0 +1,84 @@
+package platform.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "platform.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // Cota de memoria: con más usuarios activos se descartan primero los menos usados
+    private long maximumUsers = 100_000;
+    // Un usuario inactivo por más tiempo que el período más largo ya tiene el bucket lleno: descartarlo no cambia nada
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Map<String, Limit> endpoints = new HashMap<>(Map.of(
+            "vote", new Limit(10, Duration.ofMinutes(1)),
+            "comment", new Limit(5, Duration.ofMinutes(1))));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumUsers() {
+        return maximumUsers;
+    }
+
+    public void setMaximumUsers(long maximumUsers) {
+        this.maximumUsers = maximumUsers;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Map<String, Limit> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Limit> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    // Hasta capacity requests seguidos; el bucket se vuelve a llenar de a uno, repartidos a lo largo del período
+    public static class Limit {
+        private int capacity;
+        private Duration period;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+    }
+}
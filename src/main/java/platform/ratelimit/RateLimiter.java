@@ -0,0 +1,79 @@
+package platform.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket por usuario y endpoint. Cada bucket es un solo AtomicLong con el instante en que quedaría
+// lleno de nuevo (GCRA): tomar un token es un compareAndSet, sin locks ni hilo que recargue los buckets.
+@Component
+public class RateLimiter {
+
+    private record Key(String endpoint, String user) {
+    }
+
+    private record Rule(long emissionNanos, long burstNanos, Counter rejected) {
+    }
+
+    private final boolean enabled;
+    private final Map<String, Rule> rules = new HashMap<>();
+    private final Cache<Key, AtomicLong> buckets;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        properties.getEndpoints().forEach((endpoint, limit) -> {
+            if (limit.getCapacity() <= 0 || limit.getPeriod() == null || limit.getPeriod().isNegative() || limit.getPeriod().isZero()) {
+                throw new IllegalStateException("Invalid rate limit for endpoint " + endpoint);
+            }
+            long emission = limit.getPeriod().toNanos() / limit.getCapacity();
+            rules.put(endpoint, new Rule(emission, limit.getPeriod().toNanos() - emission,
+                    Counter.builder("rate.limit.rejected")
+                            .description("Requests rejected because the caller exceeded its rate limit")
+                            .tag("endpoint", endpoint)
+                            .register(meterRegistry)));
+        });
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumUsers())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    // Consume un token o lanza 429 con el tiempo hasta que haya uno disponible
+    public void acquire(String endpoint, String user) {
+        long waitNanos = tryAcquire(endpoint, user, System.nanoTime());
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException("Too many requests, try again later",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    // 0 si se tomó el token; si no, los nanosegundos que faltan para el próximo
+    long tryAcquire(String endpoint, String user, long now) {
+        Rule rule = rules.get(endpoint);
+        if (!enabled || rule == null) {
+            return 0;
+        }
+        // Un bucket nuevo (o descartado por inactividad) arranca lleno
+        AtomicLong full = buckets.get(new Key(endpoint, user), key -> new AtomicLong(now));
+        while (true) {
+            long current = full.get();
+            long start = Math.max(current, now);
+            long wait = start - now - rule.burstNanos();
+            if (wait > 0) {
+                rule.rejected().increment();
+                return wait;
+            }
+            if (full.compareAndSet(current, start + rule.emissionNanos())) {
+                return 0;
+            }
+        }
+    }
+}
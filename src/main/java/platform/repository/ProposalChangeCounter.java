@@ -0,0 +1,104 @@
+package platform.repository;
+
+import entities.domain.Proposal;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Contador de cambios de la colección de propuestas: lo suben las mismas escrituras que suben la versión de una
+// propuesta, así la huella de los GET condicionales es una lectura por _id y no un recorrido de la colección.
+// Se sube después de escribir: un lector puede ver el contador viejo con datos nuevos, nunca al revés.
+// Si la suba falla, la escritura ya quedó hecha: en vez de fallar el request se rota epoch, así la huella no
+// coincide con ningún ETag anterior, y mientras tampoco se pueda rotar este nodo no responde 304.
+@Component
+public class ProposalChangeCounter extends AbstractMongoEventListener<Proposal> {
+
+    private static final Logger log = LoggerFactory.getLogger(ProposalChangeCounter.class);
+
+    static final String COLLECTION = "collection_changes";
+    private static final String PROPOSALS = "proposals";
+
+    private final MongoTemplate mongoTemplate;
+    // Hubo una escritura que no subió el contador y todavía no se pudo rotar epoch
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    public ProposalChangeCounter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void increment() {
+        try {
+            mongoTemplate.upsert(counterQuery(), incrementUpdate(), COLLECTION);
+        } catch (DataAccessException e) {
+            log.warn("Could not bump the proposal change counter, rotating its epoch", e);
+            stale.set(true);
+            rotateEpoch();
+        }
+    }
+
+    public ProposalRepositoryCustom.Fingerprint read() {
+        if (stale.get() && !rotateEpoch()) {
+            // Una huella que no se repite: los GET condicionales de este nodo responden completo hasta poder rotar
+            return new ProposalRepositoryCustom.Fingerprint(new ObjectId().toHexString(), 0);
+        }
+        Document counter = mongoTemplate.findById(PROPOSALS, Document.class, COLLECTION);
+        if (counter == null) {
+            // Antes de la primera escritura se crea el contador, así su epoch queda fijo desde la primera lectura
+            counter = mongoTemplate.findAndModify(counterQuery(), new Update().setOnInsert("epoch", new ObjectId()),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        }
+        Number changes = counter.get("changes", Number.class);
+        return new ProposalRepositoryCustom.Fingerprint(counter.getObjectId("epoch").toHexString(),
+                changes != null ? changes.longValue() : 0);
+    }
+
+    // Altas, reemplazos y bajas hechos con save, insert o remove (los del repositorio de Spring Data)
+    @Override
+    public void onAfterSave(AfterSaveEvent<Proposal> event) {
+        increment();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Proposal> event) {
+        increment();
+    }
+
+    private boolean rotateEpoch() {
+        try {
+            mongoTemplate.upsert(counterQuery(), rotateUpdate(), COLLECTION);
+            stale.set(false);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not rotate the proposal change counter epoch, it will be retried", e);
+            return false;
+        }
+    }
+
+    static Query counterQuery() {
+        return Query.query(where("_id").is(PROPOSALS));
+    }
+
+    // epoch distingue un contador recreado (por ejemplo tras borrar la colección) de uno anterior con el mismo valor
+    static Update incrementUpdate() {
+        return new Update().inc("changes", 1).setOnInsert("epoch", new ObjectId());
+    }
+
+    // Invalida todas las huellas anteriores aunque se haya perdido la suba de una escritura
+    static Update rotateUpdate() {
+        return new Update().inc("changes", 1).set("epoch", new ObjectId());
+    }
+}
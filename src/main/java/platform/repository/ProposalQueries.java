@@ -0,0 +1,109 @@
+package platform.repository;
+
+import entities.domain.Proposal;
+import entities.domain.Tally;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Consultas compartidas por los repositorios bloqueante y reactivo de propuestas
+final class ProposalQueries {
+
+    private ProposalQueries() {
+    }
+
+    // El cursor es el _id del último elemento, así cada página es una búsqueda por índice y no un skip
+    static TypedAggregation<Proposal> summaries(String afterId, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                                String authorDocument, int limit) {
+        Criteria criteria = new Criteria();
+        if (afterId != null) {
+            criteria.and("id").lt(new ObjectId(afterId));
+        }
+        if (authorDocument != null) {
+            criteria.and("authorDocument").is(authorDocument);
+        }
+        if (limitDateFrom != null || limitDateTo != null) {
+            Criteria limitDate = criteria.and("limitDate");
+            if (limitDateFrom != null) limitDate.gte(limitDateFrom);
+            if (limitDateTo != null) limitDate.lte(limitDateTo);
+        }
+
+        return Aggregation.newAggregation(Proposal.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.Direction.DESC, "id"),
+                Aggregation.limit(limit),
+                summaryProjection());
+    }
+
+    static ProjectionOperation summaryProjection() {
+        return Aggregation.project("title", "description", "authorDocument", "limitDate",
+                        "inFavorCount", "againstCount", "updatedAt", "version")
+                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("comments").then(List.of())))
+                .as("commentCount");
+    }
+
+    // Abierta mientras el motor de ciclo de vida no la cerró y no pasó su limitDate (puede vencer antes de que corra)
+    static Criteria open(LocalDate today) {
+        return where("closedAt").is(null).and("limitDate").not().lt(today);
+    }
+
+    static Criteria closed(LocalDate today) {
+        return new Criteria().orOperator(where("closedAt").ne(null), where("limitDate").lt(today));
+    }
+
+    static boolean isOpen(Proposal proposal, LocalDate today) {
+        return proposal.getClosedAt() == null && (proposal.getLimitDate() == null || !proposal.getLimitDate().isBefore(today));
+    }
+
+    static Query openQuery(String proposalId) {
+        Query query = Query.query(where("id").is(proposalId));
+        query.fields().include("closedAt", "limitDate", "tallyEpoch");
+        return query;
+    }
+
+    // Las propuestas anteriores a tallyEpoch no tienen el campo: cuentan como época 0
+    static Criteria tallyEpoch(long epoch) {
+        return epoch == 0 ? where("tallyEpoch").in(0L, null) : where("tallyEpoch").is(epoch);
+    }
+
+    static Update tallyIncrement(long inFavorDelta, long againstDelta) {
+        return new Update()
+                .inc("inFavorCount", inFavorDelta)
+                .inc("againstCount", againstDelta)
+                .inc("version", 1)
+                .set("updatedAt", Instant.now());
+    }
+
+    // Un recálculo reemplaza los contadores y abre una época nueva
+    static Update tallyReplacement(long inFavor, long against) {
+        return new Update()
+                .set("inFavorCount", inFavor)
+                .set("againstCount", against)
+                .inc("tallyEpoch", 1)
+                .inc("version", 1)
+                .set("updatedAt", Instant.now());
+    }
+
+    static Query tallyQuery(String proposalId) {
+        Query query = Query.query(where("id").is(proposalId));
+        query.fields().include("inFavorCount", "againstCount");
+        return query;
+    }
+
+    static Tally toTally(Proposal proposal) {
+        return new Tally(proposal.getId(), proposal.getInFavorCount(), proposal.getAgainstCount());
+    }
+}
@@ -0,0 +1,83 @@
+package platform.repository;
+
+import entities.domain.Comment;
+import entities.domain.ProposalResult;
+import entities.domain.ProposalSearchHit;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface ProposalRepositoryCustom {
+
+    // Contador de cambios de toda la colección: sube con cada alta, baja o modificación de una propuesta
+    record Fingerprint(String epoch, long changes) {
+    }
+
+    enum Status { OPEN, CLOSED }
+
+    // Lo que un voto necesita saber antes de escribirse: si la propuesta está abierta y la época de sus contadores
+    record VoteTarget(boolean open, long tallyEpoch) {
+    }
+
+    // Suma los deltas a los contadores de votos en una sola operación, solo si siguen en la época leída antes de
+    // escribir el voto; null si la propuesta no existe y OptimisticLockingFailureException si un recálculo la cambió
+    Tally incrementTally(String proposalId, long tallyEpoch, long inFavorDelta, long againstDelta);
+
+    // Aplica en una única escritura bulk los deltas de varias propuestas (cada Tally lleva los incrementos), cada uno
+    // en la época indicada para su propuesta; false si alguno no se aplicó porque cambió la época o se borró la propuesta
+    boolean incrementTallies(Collection<Tally> deltas, Map<String, Long> tallyEpochs);
+
+    // Reemplaza los contadores por valores recalculados, solo si la propuesta sigue en la versión leída antes de contar,
+    // y abre una época nueva para rechazar los $inc de votos que el conteo pudo haber incluido
+    boolean setTally(String proposalId, long version, long inFavor, long against);
+
+    // Devuelve la época de los contadores de las propuestas abiertas entre los ids, leyendo solo esos campos
+    Map<String, Long> findOpenTallyEpochs(Collection<String> proposalIds);
+
+    // Lee solo closedAt, limitDate y tallyEpoch; null si la propuesta no existe
+    VoteTarget findVoteTarget(String proposalId);
+
+    // Lee solo closedAt y limitDate; null si la propuesta no existe
+    Boolean isOpen(String proposalId);
+
+    // Lee solo los contadores de votos; null si la propuesta no existe
+    Tally findTally(String proposalId);
+
+    // Lista propuestas de la más nueva a la más vieja a partir del cursor, sin los arreglos de comentarios
+    List<ProposalSummary> findSummaries(String afterId, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                        String authorDocument, int limit);
+
+    // Recorre con un cursor las propuestas modificadas desde la fecha indicada (todas si es null)
+    Stream<ProposalSummary> streamSummaries(Instant updatedSince);
+
+    // Agrega el comentario al final del arreglo en una sola operación; false si la propuesta no existe, está cerrada
+    // o si se indicó una versión esperada y la propuesta ya no la tiene
+    boolean pushComment(String proposalId, Comment comment, Long expectedVersion);
+
+    // Quita el comentario en una sola operación; false si la propuesta o el comentario no existen
+    boolean pullComment(String proposalId, String commentId);
+
+    // Borra la propuesta solo si sigue en la versión indicada
+    boolean deleteIfVersion(String proposalId, Long version);
+
+    // Lee solo la versión; null si la propuesta no existe
+    Long findVersion(String proposalId);
+
+    // Lee el contador de cambios de la colección, sin recorrer las propuestas
+    Fingerprint fingerprint();
+
+    // Resultado congelado al cerrar la propuesta; null si todavía no se cerró
+    ProposalResult findResult(String proposalId);
+
+    // Búsqueda por texto en título y descripción con el índice de texto, de la más a la menos relevante
+    List<ProposalSearchHit> search(String text, Status status, int limit);
+
+    // Lista los comentarios ordenados por (publishDate, id) a partir del último comentario leído
+    List<Comment> findComments(String proposalId, LocalDate afterPublishDate, String afterId, int limit);
+}
@@ -0,0 +1,246 @@
+package platform.repository;
+
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import entities.domain.ProposalResult;
+import entities.domain.ProposalSearchHit;
+import org.bson.Document;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static platform.repository.ProposalQueries.closed;
+import static platform.repository.ProposalQueries.open;
+import static platform.repository.ProposalQueries.openQuery;
+import static platform.repository.ProposalQueries.summaries;
+import static platform.repository.ProposalQueries.summaryProjection;
+import static platform.repository.ProposalQueries.tallyEpoch;
+import static platform.repository.ProposalQueries.tallyIncrement;
+import static platform.repository.ProposalQueries.tallyQuery;
+import static platform.repository.ProposalQueries.tallyReplacement;
+import static platform.repository.ProposalQueries.toTally;
+
+public class ProposalRepositoryCustomImpl implements ProposalRepositoryCustom {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProposalChangeCounter changes;
+
+    public ProposalRepositoryCustomImpl(MongoTemplate mongoTemplate, ProposalChangeCounter changes) {
+        this.mongoTemplate = mongoTemplate;
+        this.changes = changes;
+    }
+
+    @Override
+    public Tally incrementTally(String proposalId, long tallyEpoch, long inFavorDelta, long againstDelta) {
+        Query query = tallyQuery(proposalId).addCriteria(tallyEpoch(tallyEpoch));
+        Proposal proposal = mongoTemplate.findAndModify(query, tallyIncrement(inFavorDelta, againstDelta),
+                FindAndModifyOptions.options().returnNew(true), Proposal.class);
+        if (proposal == null) {
+            // Solo ante un rechazo se averigua si la propuesta no existe o si un recálculo cambió la época
+            if (mongoTemplate.exists(Query.query(where("id").is(proposalId)), Proposal.class)) {
+                throw new OptimisticLockingFailureException("Tally of proposal " + proposalId + " was recounted");
+            }
+            return null;
+        }
+        changes.increment();
+        return toTally(proposal);
+    }
+
+    @Override
+    public boolean incrementTallies(Collection<Tally> deltas, Map<String, Long> tallyEpochs) {
+        if (deltas.isEmpty()) {
+            return true;
+        }
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Proposal.class);
+        for (Tally delta : deltas) {
+            Query query = Query.query(where("id").is(delta.getProposalId()))
+                    .addCriteria(tallyEpoch(tallyEpochs.getOrDefault(delta.getProposalId(), 0L)));
+            bulk.updateOne(query, new Update()
+                    .inc("inFavorCount", delta.getInFavor())
+                    .inc("againstCount", delta.getAgainst())
+                    .inc("version", 1)
+                    .set("updatedAt", now));
+        }
+        int matched = bulk.execute().getMatchedCount();
+        if (matched > 0) {
+            changes.increment();
+        }
+        return matched == deltas.size();
+    }
+
+    @Override
+    public boolean setTally(String proposalId, long version, long inFavor, long against) {
+        return changed(mongoTemplate.updateFirst(Query.query(where("id").is(proposalId).and("version").is(version)),
+                tallyReplacement(inFavor, against), Proposal.class).getMatchedCount() > 0);
+    }
+
+    @Override
+    public Map<String, Long> findOpenTallyEpochs(Collection<String> proposalIds) {
+        Query query = Query.query(where("id").in(proposalIds).andOperator(open(LocalDate.now())));
+        query.fields().include("id", "tallyEpoch");
+        return mongoTemplate.find(query, Proposal.class).stream()
+                .collect(Collectors.toMap(Proposal::getId, Proposal::getTallyEpoch));
+    }
+
+    @Override
+    public VoteTarget findVoteTarget(String proposalId) {
+        Proposal proposal = mongoTemplate.findOne(openQuery(proposalId), Proposal.class);
+        return proposal != null ? new VoteTarget(ProposalQueries.isOpen(proposal, LocalDate.now()), proposal.getTallyEpoch()) : null;
+    }
+
+    @Override
+    public Boolean isOpen(String proposalId) {
+        Proposal proposal = mongoTemplate.findOne(openQuery(proposalId), Proposal.class);
+        return proposal != null ? ProposalQueries.isOpen(proposal, LocalDate.now()) : null;
+    }
+
+    @Override
+    public Tally findTally(String proposalId) {
+        Proposal proposal = mongoTemplate.findOne(tallyQuery(proposalId), Proposal.class);
+        return proposal != null ? toTally(proposal) : null;
+    }
+
+    @Override
+    public List<ProposalSummary> findSummaries(String afterId, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                               String authorDocument, int limit) {
+        TypedAggregation<Proposal> aggregation = summaries(afterId, limitDateFrom, limitDateTo, authorDocument, limit);
+        return mongoTemplate.aggregate(aggregation, ProposalSummary.class).getMappedResults();
+    }
+
+    @Override
+    public Stream<ProposalSummary> streamSummaries(Instant updatedSince) {
+        Criteria criteria = updatedSince != null ? where("updatedAt").gte(updatedSince) : new Criteria();
+
+        TypedAggregation<Proposal> aggregation = Aggregation.newAggregation(Proposal.class,
+                        Aggregation.match(criteria),
+                        summaryProjection())
+                .withOptions(AggregationOptions.builder().cursorBatchSize(STREAM_BATCH_SIZE).build());
+
+        return mongoTemplate.aggregateStream(aggregation, ProposalSummary.class);
+    }
+
+    @Override
+    public boolean pushComment(String proposalId, Comment comment, Long expectedVersion) {
+        Criteria criteria = where("id").is(proposalId).andOperator(open(LocalDate.now()));
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update()
+                .push("comments", comment)
+                .inc("version", 1)
+                .set("updatedAt", Instant.now());
+        return changed(mongoTemplate.updateFirst(Query.query(criteria), update, Proposal.class)
+                .getMatchedCount() > 0);
+    }
+
+    @Override
+    public boolean pullComment(String proposalId, String commentId) {
+        Query withComment = Query.query(where("id").is(proposalId).and("comments.id").is(commentId));
+        Update update = new Update()
+                .pull("comments", Query.query(where("id").is(commentId)))
+                .inc("version", 1)
+                .set("updatedAt", Instant.now());
+        return changed(mongoTemplate.updateFirst(withComment, update, Proposal.class).getMatchedCount() > 0);
+    }
+
+    @Override
+    public boolean deleteIfVersion(String proposalId, Long version) {
+        // Una versión null coincide con los documentos anteriores a que existiera el campo
+        Query query = Query.query(where("id").is(proposalId).and("version").is(version));
+        return mongoTemplate.remove(query, Proposal.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public Long findVersion(String proposalId) {
+        Query query = Query.query(where("id").is(proposalId));
+        query.fields().include("version");
+        Proposal proposal = mongoTemplate.findOne(query, Proposal.class);
+        if (proposal == null) {
+            return null;
+        }
+        return proposal.getVersion() != null ? proposal.getVersion() : 0L;
+    }
+
+    @Override
+    public Fingerprint fingerprint() {
+        return changes.read();
+    }
+
+    // Las bajas con remove ya suben el contador desde el evento de borrado
+    private boolean changed(boolean written) {
+        if (written) {
+            changes.increment();
+        }
+        return written;
+    }
+
+    @Override
+    public ProposalResult findResult(String proposalId) {
+        return mongoTemplate.findById(proposalId, ProposalResult.class);
+    }
+
+    // $text tiene que ser la primera etapa para usar el índice; el filtro de estado se aplica sobre lo encontrado
+    @Override
+    public List<ProposalSearchHit> search(String text, Status status, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(text)));
+        if (status != null) {
+            LocalDate today = LocalDate.now();
+            stages.add(Aggregation.match(status == Status.OPEN ? open(today) : closed(today)));
+        }
+        stages.add(context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        stages.add(Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.desc("id"))));
+        stages.add(Aggregation.limit(limit));
+        stages.add(summaryProjection().andInclude("score", "closedAt"));
+
+        // Sin TypedAggregation: score no es un campo de Proposal y el mapeo estricto lo rechazaría
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), Proposal.class, ProposalSearchHit.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<Comment> findComments(String proposalId, LocalDate afterPublishDate, String afterId, int limit) {
+        Criteria after = new Criteria();
+        if (afterPublishDate != null && afterId != null) {
+            after = new Criteria().orOperator(
+                    where("comments.publishDate").gt(afterPublishDate),
+                    where("comments.publishDate").is(afterPublishDate).and("comments.id").gt(afterId));
+        }
+
+        TypedAggregation<Proposal> aggregation = Aggregation.newAggregation(Proposal.class,
+                Aggregation.match(where("id").is(proposalId)),
+                Aggregation.project("comments"),
+                Aggregation.unwind("comments"),
+                Aggregation.match(after),
+                Aggregation.sort(Sort.by("comments.publishDate", "comments.id")),
+                Aggregation.limit(limit),
+                Aggregation.replaceRoot("comments"));
+
+        return mongoTemplate.aggregate(aggregation, Comment.class).getMappedResults();
+    }
+}
@@ -3,7 +3,7 @@ package platform.repository;
 import entities.user.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 
     User findByDocument(String document);
     void deleteByDocument(String document);
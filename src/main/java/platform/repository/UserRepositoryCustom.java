@@ -0,0 +1,7 @@
+package platform.repository;
+
+public interface UserRepositoryCustom {
+
+    // Reemplaza el hash solo si sigue siendo el esperado, para no pisar un cambio de contraseña concurrente
+    boolean updatePasswordIfUnchanged(String document, String expectedHash, String newHash);
+}
@@ -0,0 +1,24 @@
+package platform.repository;
+
+import entities.user.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean updatePasswordIfUnchanged(String document, String expectedHash, String newHash) {
+        Query query = Query.query(where("document").is(document).and("password").is(expectedHash));
+        return mongoTemplate.updateFirst(query, new Update().set("password", newHash), User.class)
+                .getModifiedCount() > 0;
+    }
+}
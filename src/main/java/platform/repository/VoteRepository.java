@@ -0,0 +1,11 @@
+package platform.repository;
+
+import entities.domain.Vote;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface VoteRepository extends MongoRepository<Vote, String>, VoteRepositoryCustom {
+
+    long countByProposalIdAndInFavor(String proposalId, boolean inFavor);
+
+    void deleteByProposalId(String proposalId);
+}
@@ -0,0 +1,20 @@
+package platform.repository;
+
+import entities.domain.Vote;
+
+import java.util.List;
+
+public interface VoteRepositoryCustom {
+
+    // Qué hizo upsertAll con cada voto: el primero del ciudadano, un cambio de opinión o el mismo voto que ya estaba
+    enum Change {
+        ADDED, CHANGED, UNCHANGED
+    }
+
+    // Inserta o reemplaza el voto del ciudadano en una sola operación; devuelve el voto anterior o null si es el primero
+    Vote upsert(Vote vote);
+
+    // Escribe el lote en una sola escritura masiva sin orden y devuelve el cambio de cada voto, en el mismo orden.
+    // Solo se escribe un voto que cambia: entre dos escrituras concurrentes del mismo voto, una sola informa el cambio.
+    List<Change> upsertAll(List<Vote> votes);
+}
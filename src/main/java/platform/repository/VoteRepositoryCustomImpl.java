@@ -0,0 +1,87 @@
+package platform.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import entities.domain.Vote;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class VoteRepositoryCustomImpl implements VoteRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public VoteRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Vote upsert(Vote vote) {
+        Query query = Query.query(where("proposalId").is(vote.getProposalId())
+                .and("userDocument").is(vote.getUserDocument()));
+        Update update = new Update().set("inFavor", vote.isInFavor());
+
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Vote.class);
+        } catch (DuplicateKeyException e) {
+            // Otro request del mismo ciudadano insertó el voto primero; el índice único ya lo contiene
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(false), Vote.class);
+        }
+    }
+
+    // Cada upsert filtra por inFavor distinto del nuevo: si coincide, el ciudadano cambió de opinión; si no coincide y
+    // el voto no existía, se inserta; si ya estaba igual, el insert choca con el índice único y el voto no cambió
+    @Override
+    public List<Change> upsertAll(List<Vote> votes) {
+        if (votes.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        for (Vote vote : votes) {
+            bulk.upsert(Query.query(where("proposalId").is(vote.getProposalId())
+                            .and("userDocument").is(vote.getUserDocument())
+                            .and("inFavor").ne(vote.isInFavor())),
+                    new Update().set("inFavor", vote.isInFavor()));
+        }
+
+        BulkWriteResult result;
+        Set<Integer> unchanged = new HashSet<>();
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                unchanged.add(error.getIndex());
+            }
+            result = e.getResult();
+        }
+        Set<Integer> added = new HashSet<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            added.add(upsert.getIndex());
+        }
+
+        List<Change> changes = new ArrayList<>(votes.size());
+        for (int i = 0; i < votes.size(); i++) {
+            changes.add(added.contains(i) ? Change.ADDED : unchanged.contains(i) ? Change.UNCHANGED : Change.CHANGED);
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,91 @@
+package platform.repository.memory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.mongodb.core.query.UntypedExampleMatcher;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Query by example sobre los documentos en memoria, con las mismas reglas que la consulta que arma MongoDB:
+// se comparan las propiedades no nulas del ejemplo (los primitivos siempre, salvo que se ignoren), los objetos
+// anidados campo por campo y los String con el StringMatcher y el ignoreCase de cada ruta
+final class InMemoryExamples {
+
+    private InMemoryExamples() {
+    }
+
+    static boolean matches(Example<?> example, Object entity) {
+        ExampleMatcher matcher = example.getMatcher();
+        // Con el matcher tipado MongoDB filtra por _class: solo el tipo del ejemplo y sus subclases
+        if (!(matcher instanceof UntypedExampleMatcher) && !example.getProbeType().isInstance(entity)) {
+            return false;
+        }
+        List<Boolean> results = new ArrayList<>();
+        compare(new ExampleMatcherAccessor(matcher), "", example.getProbe(), entity, results);
+        if (results.isEmpty()) {
+            return true;
+        }
+        return matcher.isAllMatching() ? !results.contains(false) : results.contains(true);
+    }
+
+    private static void compare(ExampleMatcherAccessor accessor, String prefix, Object probe, Object entity, List<Boolean> results) {
+        BeanWrapper probeProperties = new BeanWrapperImpl(probe);
+        BeanWrapper entityProperties = entity != null ? new BeanWrapperImpl(entity) : null;
+        for (PropertyDescriptor property : probeProperties.getPropertyDescriptors()) {
+            String name = property.getName();
+            String path = prefix + name;
+            if ("class".equals(name) || property.getReadMethod() == null || accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object expected = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(probeProperties.getPropertyValue(name)))
+                    .orElse(null);
+            Object actual = entityProperties != null && entityProperties.isReadableProperty(name)
+                    ? entityProperties.getPropertyValue(name) : null;
+
+            if (expected == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    results.add(actual == null);
+                }
+            } else if (expected instanceof String text) {
+                results.add(actual instanceof String value && matches(accessor, path, text, value));
+            } else if (BeanUtils.isSimpleValueType(expected.getClass()) || expected instanceof Collection<?> || expected instanceof Map<?, ?>) {
+                results.add(Objects.equals(expected, actual));
+            } else {
+                compare(accessor, path + ".", expected, actual, results);
+            }
+        }
+    }
+
+    private static boolean matches(ExampleMatcherAccessor accessor, String path, String expected, String actual) {
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        ExampleMatcher.StringMatcher stringMatcher = accessor.getStringMatcherForPath(path);
+        if (stringMatcher == ExampleMatcher.StringMatcher.REGEX) {
+            // Como $regex, el patrón puede aparecer en cualquier parte del valor
+            int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+            return Pattern.compile(expected, flags).matcher(actual).find();
+        }
+        if (ignoreCase) {
+            expected = expected.toLowerCase(Locale.ROOT);
+            actual = actual.toLowerCase(Locale.ROOT);
+        }
+        return switch (stringMatcher) {
+            case STARTING -> actual.startsWith(expected);
+            case ENDING -> actual.endsWith(expected);
+            case CONTAINING -> actual.contains(expected);
+            default -> actual.equals(expected);
+        };
+    }
+}
@@ -0,0 +1,401 @@
+package platform.repository.memory;
+
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import entities.domain.ProposalResult;
+import entities.domain.ProposalSearchHit;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import platform.repository.ProposalRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Propuestas en memoria ordenadas por _id, como el índice que usa la paginación por cursor.
+// Cada modificación reemplaza el documento por una copia nueva: las lecturas nunca ven un documento a medio escribir.
+// La lista de comentarios almacenada es inmutable y se comparte entre versiones, así un voto no copia los comentarios.
+@Repository
+@Profile("in-memory")
+public class InMemoryProposalRepository extends InMemoryRepository<Proposal> implements ProposalRepository {
+
+    private static final Comparator<Comment> COMMENT_ORDER = Comparator
+            .comparing(Comment::getPublishDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Comment::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ConcurrentNavigableMap<String, Proposal> proposals;
+    private final InMemoryTextIndex textIndex = new InMemoryTextIndex();
+    // Contador de cambios de la colección, como collection_changes: se sube después de que la escritura es visible
+    private final String epoch = newId();
+    private final AtomicLong changes = new AtomicLong();
+
+    public InMemoryProposalRepository() {
+        this(new ConcurrentSkipListMap<>());
+    }
+
+    private InMemoryProposalRepository(ConcurrentNavigableMap<String, Proposal> proposals) {
+        super(proposals);
+        this.proposals = proposals;
+    }
+
+    @Override
+    protected String idOf(Proposal proposal) {
+        return proposal.getId();
+    }
+
+    @Override
+    protected void assignId(Proposal proposal, String id) {
+        proposal.setId(id);
+    }
+
+    @Override
+    protected Proposal copy(Proposal proposal) {
+        List<Comment> comments = null;
+        if (proposal.getComments() != null) {
+            comments = new ArrayList<>(proposal.getComments().size());
+            for (Comment comment : proposal.getComments()) {
+                comments.add(copyComment(comment));
+            }
+        }
+        return snapshot(proposal, comments);
+    }
+
+    private static Proposal snapshot(Proposal source, List<Comment> comments) {
+        Proposal proposal = new Proposal();
+        proposal.setId(source.getId());
+        proposal.setTitle(source.getTitle());
+        proposal.setDescription(source.getDescription());
+        proposal.setAuthorDocument(source.getAuthorDocument());
+        proposal.setLimitDate(source.getLimitDate());
+        proposal.setInFavorCount(source.getInFavorCount());
+        proposal.setAgainstCount(source.getAgainstCount());
+        proposal.setTallyEpoch(source.getTallyEpoch());
+        proposal.setUpdatedAt(source.getUpdatedAt());
+        proposal.setComments(comments);
+        proposal.setVersion(source.getVersion());
+        proposal.setClosedAt(source.getClosedAt());
+        proposal.setArchivedAt(source.getArchivedAt());
+        proposal.setArchivingAt(source.getArchivingAt());
+        return proposal;
+    }
+
+    private static Comment copyComment(Comment source) {
+        Comment comment = new Comment();
+        comment.setId(source.getId());
+        comment.setUserDocument(source.getUserDocument());
+        comment.setDescription(source.getDescription());
+        comment.setPublishDate(source.getPublishDate());
+        return comment;
+    }
+
+    // Igual que el @Version de Spring Data: sin versión es un insert; con versión solo actualiza si coincide
+    @Override
+    protected void store(Proposal proposal, boolean insert) {
+        Proposal copy = copy(proposal);
+        Proposal stored = snapshot(copy, copy.getComments() != null ? List.copyOf(copy.getComments()) : null);
+        Long expected = proposal.getVersion();
+        String id = stored.getId();
+        proposals.compute(id, (key, current) -> {
+            if (insert || expected == null) {
+                if (current != null) {
+                    throw duplicateKey("_id_", id);
+                }
+                stored.setVersion(expected != null ? expected : 0L);
+            } else {
+                if (current == null || !expected.equals(current.getVersion())) {
+                    throw new OptimisticLockingFailureException(
+                            "Cannot save proposal " + id + " with version " + expected + "; it was modified or deleted");
+                }
+                stored.setVersion(expected + 1);
+            }
+            return stored;
+        });
+        proposal.setVersion(stored.getVersion());
+        textIndex.index(id, stored.getTitle(), stored.getDescription());
+        changes.incrementAndGet();
+    }
+
+    @Override
+    protected Proposal remove(String id) {
+        Proposal removed = proposals.remove(id);
+        if (removed != null) {
+            textIndex.remove(id);
+            changes.incrementAndGet();
+        }
+        return removed;
+    }
+
+    // Equivalente a $inc de version y $set de updatedAt en cada escritura
+    private static Proposal modified(Proposal current, List<Comment> comments, Instant now) {
+        Proposal next = snapshot(current, comments);
+        next.setVersion(current.getVersion() != null ? current.getVersion() + 1 : 1L);
+        next.setUpdatedAt(now);
+        return next;
+    }
+
+    @Override
+    public Tally incrementTally(String proposalId, long tallyEpoch, long inFavorDelta, long againstDelta) {
+        Proposal updated = proposals.computeIfPresent(proposalId, (key, current) -> {
+            if (current.getTallyEpoch() != tallyEpoch) {
+                throw new OptimisticLockingFailureException("Tally of proposal " + proposalId + " was recounted");
+            }
+            Proposal next = modified(current, current.getComments(), Instant.now());
+            next.setInFavorCount(current.getInFavorCount() + inFavorDelta);
+            next.setAgainstCount(current.getAgainstCount() + againstDelta);
+            return next;
+        });
+        if (updated == null) {
+            return null;
+        }
+        changes.incrementAndGet();
+        return toTally(updated);
+    }
+
+    @Override
+    public boolean incrementTallies(Collection<Tally> deltas, Map<String, Long> tallyEpochs) {
+        Instant now = Instant.now();
+        AtomicLong applied = new AtomicLong();
+        for (Tally delta : deltas) {
+            proposals.computeIfPresent(delta.getProposalId(), (key, current) -> {
+                if (current.getTallyEpoch() != tallyEpochs.getOrDefault(key, 0L)) {
+                    return current;
+                }
+                applied.incrementAndGet();
+                Proposal next = modified(current, current.getComments(), now);
+                next.setInFavorCount(current.getInFavorCount() + delta.getInFavor());
+                next.setAgainstCount(current.getAgainstCount() + delta.getAgainst());
+                return next;
+            });
+        }
+        changes.incrementAndGet();
+        return applied.get() == deltas.size();
+    }
+
+    @Override
+    public boolean setTally(String proposalId, long version, long inFavor, long against) {
+        AtomicBoolean updated = new AtomicBoolean();
+        proposals.computeIfPresent(proposalId, (key, current) -> {
+            if (!Objects.equals(current.getVersion(), version)) {
+                return current;
+            }
+            updated.set(true);
+            Proposal next = modified(current, current.getComments(), Instant.now());
+            next.setInFavorCount(inFavor);
+            next.setAgainstCount(against);
+            next.setTallyEpoch(current.getTallyEpoch() + 1);
+            return next;
+        });
+        return changed(updated.get());
+    }
+
+    @Override
+    public Map<String, Long> findOpenTallyEpochs(Collection<String> proposalIds) {
+        return proposalIds.stream()
+                .map(proposals::get)
+                .filter(proposal -> proposal != null && isOpen(proposal))
+                .collect(Collectors.toMap(Proposal::getId, Proposal::getTallyEpoch, (first, second) -> first));
+    }
+
+    @Override
+    public VoteTarget findVoteTarget(String proposalId) {
+        Proposal proposal = proposals.get(proposalId);
+        return proposal != null ? new VoteTarget(isOpen(proposal), proposal.getTallyEpoch()) : null;
+    }
+
+    // El motor de ciclo de vida no corre en este perfil: una propuesta se cierra solo por su limitDate
+    @Override
+    public Boolean isOpen(String proposalId) {
+        Proposal proposal = proposals.get(proposalId);
+        return proposal != null ? isOpen(proposal) : null;
+    }
+
+    private static boolean isOpen(Proposal proposal) {
+        return proposal.getClosedAt() == null
+                && (proposal.getLimitDate() == null || !proposal.getLimitDate().isBefore(LocalDate.now()));
+    }
+
+    @Override
+    public Tally findTally(String proposalId) {
+        Proposal proposal = proposals.get(proposalId);
+        return proposal != null ? toTally(proposal) : null;
+    }
+
+    private static Tally toTally(Proposal proposal) {
+        return new Tally(proposal.getId(), proposal.getInFavorCount(), proposal.getAgainstCount());
+    }
+
+    // Los ObjectId en hexadecimal ordenan igual como texto, así que el cursor es un recorrido del mapa ordenado
+    @Override
+    public List<ProposalSummary> findSummaries(String afterId, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                               String authorDocument, int limit) {
+        NavigableMap<String, Proposal> older = afterId != null ? proposals.headMap(afterId, false) : proposals;
+        return older.descendingMap().values().stream()
+                .filter(proposal -> authorDocument == null || authorDocument.equals(proposal.getAuthorDocument()))
+                .filter(proposal -> inRange(proposal.getLimitDate(), limitDateFrom, limitDateTo))
+                .limit(limit)
+                .map(InMemoryProposalRepository::toSummary)
+                .toList();
+    }
+
+    private static boolean inRange(LocalDate date, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    private static ProposalSummary toSummary(Proposal proposal) {
+        return toSummary(proposal, new ProposalSummary());
+    }
+
+    private static <S extends ProposalSummary> S toSummary(Proposal proposal, S summary) {
+        summary.setId(proposal.getId());
+        summary.setTitle(proposal.getTitle());
+        summary.setDescription(proposal.getDescription());
+        summary.setAuthorDocument(proposal.getAuthorDocument());
+        summary.setLimitDate(proposal.getLimitDate());
+        summary.setInFavorCount(proposal.getInFavorCount());
+        summary.setAgainstCount(proposal.getAgainstCount());
+        summary.setCommentCount(proposal.getComments() != null ? proposal.getComments().size() : 0);
+        summary.setUpdatedAt(proposal.getUpdatedAt());
+        summary.setVersion(proposal.getVersion() != null ? proposal.getVersion() : 0);
+        return summary;
+    }
+
+    @Override
+    public Stream<ProposalSummary> streamSummaries(Instant updatedSince) {
+        return proposals.values().stream()
+                .filter(proposal -> updatedSince == null
+                        || proposal.getUpdatedAt() != null && !proposal.getUpdatedAt().isBefore(updatedSince))
+                .map(InMemoryProposalRepository::toSummary);
+    }
+
+    @Override
+    public boolean pushComment(String proposalId, Comment comment, Long expectedVersion) {
+        AtomicBoolean pushed = new AtomicBoolean();
+        proposals.computeIfPresent(proposalId, (key, current) -> {
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                return current;
+            }
+            if (!isOpen(current)) {
+                return current;
+            }
+            List<Comment> comments = new ArrayList<>(current.getComments() != null ? current.getComments() : List.of());
+            comments.add(copyComment(comment));
+            pushed.set(true);
+            return modified(current, List.copyOf(comments), Instant.now());
+        });
+        return changed(pushed.get());
+    }
+
+    @Override
+    public boolean pullComment(String proposalId, String commentId) {
+        AtomicBoolean pulled = new AtomicBoolean();
+        proposals.computeIfPresent(proposalId, (key, current) -> {
+            if (current.getComments() == null
+                    || current.getComments().stream().noneMatch(comment -> commentId.equals(comment.getId()))) {
+                return current;
+            }
+            List<Comment> comments = current.getComments().stream()
+                    .filter(comment -> !commentId.equals(comment.getId()))
+                    .toList();
+            pulled.set(true);
+            return modified(current, comments, Instant.now());
+        });
+        return changed(pulled.get());
+    }
+
+    // Cada versión es un objeto distinto, así que remove(id, actual) solo borra si nadie la modificó en el medio
+    @Override
+    public boolean deleteIfVersion(String proposalId, Long version) {
+        Proposal current = proposals.get(proposalId);
+        if (current != null && Objects.equals(current.getVersion(), version) && proposals.remove(proposalId, current)) {
+            textIndex.remove(proposalId);
+            changes.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Long findVersion(String proposalId) {
+        Proposal proposal = proposals.get(proposalId);
+        if (proposal == null) {
+            return null;
+        }
+        return proposal.getVersion() != null ? proposal.getVersion() : 0L;
+    }
+
+    @Override
+    public Fingerprint fingerprint() {
+        return new Fingerprint(epoch, changes.get());
+    }
+
+    private boolean changed(boolean written) {
+        if (written) {
+            changes.incrementAndGet();
+        }
+        return written;
+    }
+
+    @Override
+    public List<ProposalSearchHit> search(String text, Status status, int limit) {
+        List<ProposalSearchHit> hits = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : textIndex.search(text, limit, id -> matches(proposals.get(id), status))) {
+            Proposal proposal = proposals.get(entry.getKey());
+            if (proposal == null) {
+                continue;
+            }
+            ProposalSearchHit hit = toSummary(proposal, new ProposalSearchHit());
+            hit.setScore(entry.getValue());
+            hit.setClosedAt(proposal.getClosedAt());
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    private static boolean matches(Proposal proposal, Status status) {
+        return proposal != null && (status == null || isOpen(proposal) == (status == Status.OPEN));
+    }
+
+    @Override
+    public ProposalResult findResult(String proposalId) {
+        return null;
+    }
+
+    @Override
+    public List<Comment> findComments(String proposalId, LocalDate afterPublishDate, String afterId, int limit) {
+        Proposal proposal = proposals.get(proposalId);
+        if (proposal == null || proposal.getComments() == null) {
+            return List.of();
+        }
+        Comment cursor = null;
+        if (afterPublishDate != null && afterId != null) {
+            cursor = new Comment();
+            cursor.setPublishDate(afterPublishDate);
+            cursor.setId(afterId);
+        }
+        Comment after = cursor;
+        return proposal.getComments().stream()
+                .filter(comment -> after == null || COMMENT_ORDER.compare(comment, after) > 0)
+                .sorted(COMMENT_ORDER)
+                .limit(limit)
+                .map(InMemoryProposalRepository::copyComment)
+                .toList();
+    }
+}
@@ -0,0 +1,330 @@
+package platform.repository.memory;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Base de los repositorios en memoria del perfil "in-memory": el CRUD de Spring Data sobre un mapa concurrente.
+// Se guardan y devuelven copias para que, igual que con MongoDB, modificar un objeto leído no cambie lo almacenado.
+abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    protected final ConcurrentMap<String, T> documents;
+
+    protected InMemoryRepository(ConcurrentMap<String, T> documents) {
+        this.documents = documents;
+    }
+
+    protected abstract String idOf(T entity);
+
+    protected abstract void assignId(T entity, String id);
+
+    protected abstract T copy(T entity);
+
+    // Guarda una copia aplicando las reglas de la colección (índices únicos, versión); insert falla si el id ya existe
+    protected abstract void store(T entity, boolean insert);
+
+    // Quita el documento y sus entradas en los índices; devuelve el documento borrado o null
+    protected abstract T remove(String id);
+
+    protected static String newId() {
+        return new ObjectId().toHexString();
+    }
+
+    protected static DuplicateKeyException duplicateKey(String index, Object key) {
+        // Mismo formato que el mensaje de MongoDB, que incluye el nombre del índice que rechazó la escritura
+        return new DuplicateKeyException("E11000 duplicate key error index: " + index + " dup key: { " + key + " }");
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        if (idOf(entity) == null) {
+            assignId(entity, newId());
+        }
+        store(entity, false);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        if (idOf(entity) == null) {
+            assignId(entity, newId());
+        }
+        store(entity, true);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        T entity = documents.get(id);
+        return entity != null ? Optional.of(copy(entity)) : Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return documents.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        List<T> found = new ArrayList<>();
+        for (String id : ids) {
+            T entity = documents.get(id);
+            if (entity != null) {
+                found.add(copy(entity));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        remove(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        remove(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        documents.keySet().forEach(this::remove);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return documents.values().stream().sorted(comparator(sort)).map(this::copy).toList();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        List<T> content = documents.values().stream()
+                .sorted(comparator(pageable.getSort()))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(this::copy)
+                .toList();
+        return new PageImpl<>(content, pageable, count());
+    }
+
+    // Como en MongoDB, los valores nulos quedan primero en orden ascendente
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    entity -> (Comparable) new BeanWrapperImpl(entity).getPropertyValue(order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    // Query by example con las reglas de ExampleMatcher, devolviendo copias como el resto de las lecturas
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return matching(example, Sort.unsorted()).findFirst();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return matching(example, Sort.unsorted()).toList();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return matching(example, sort).toList();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(example, pageable.getSort()));
+        }
+        List<S> content = matching(example, pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, count(example));
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return documents.values().stream().filter(entity -> InMemoryExamples.matches(example, entity)).count();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return documents.values().stream().anyMatch(entity -> InMemoryExamples.matches(example, entity));
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(example, Sort.unsorted(), 0, example.getProbeType()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S extends T> Stream<S> matching(Example<S> example, Sort sort) {
+        return documents.values().stream()
+                .filter(entity -> InMemoryExamples.matches(example, entity))
+                .sorted(comparator(sort))
+                .map(entity -> (S) copy(entity));
+    }
+
+    // La consulta fluida de findBy; project no recorta campos: los documentos en memoria ya están completos
+    private final class ExampleQuery<S extends T, R> implements FluentQuery.FetchableFluentQuery<R> {
+        private final Example<S> example;
+        private final Sort sort;
+        private final int limit;
+        private final Class<R> resultType;
+
+        ExampleQuery(Example<S> example, Sort sort, int limit, Class<R> resultType) {
+            this.example = example;
+            this.sort = sort;
+            this.limit = limit;
+            this.resultType = resultType;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> sortBy(Sort sort) {
+            return new ExampleQuery<>(example, this.sort.and(sort), limit, resultType);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> limit(int limit) {
+            return new ExampleQuery<>(example, sort, limit, resultType);
+        }
+
+        @Override
+        public <N> FluentQuery.FetchableFluentQuery<N> as(Class<N> resultType) {
+            return new ExampleQuery<>(example, sort, limit, resultType);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public R oneValue() {
+            List<R> found = results(sort).limit(2).toList();
+            if (found.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1);
+            }
+            return found.isEmpty() ? null : found.getFirst();
+        }
+
+        @Override
+        public R firstValue() {
+            return results(sort).findFirst().orElse(null);
+        }
+
+        @Override
+        public List<R> all() {
+            return results(sort).toList();
+        }
+
+        @Override
+        public Page<R> page(Pageable pageable) {
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(results(sort.and(pageable.getSort())).toList());
+            }
+            List<R> content = results(sort.and(pageable.getSort()))
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .toList();
+            return new PageImpl<>(content, pageable, count());
+        }
+
+        @Override
+        public Stream<R> stream() {
+            return results(sort);
+        }
+
+        @Override
+        public long count() {
+            return InMemoryRepository.this.count(example);
+        }
+
+        @Override
+        public boolean exists() {
+            return InMemoryRepository.this.exists(example);
+        }
+
+        private Stream<R> results(Sort sort) {
+            Stream<S> found = matching(example, sort);
+            return (limit > 0 ? found.limit(limit) : found).map(this::convert);
+        }
+
+        // Igual que las proyecciones de Spring Data: una interfaz se respalda en la entidad y una clase copia sus propiedades
+        private R convert(S entity) {
+            if (resultType.isInstance(entity)) {
+                return resultType.cast(entity);
+            }
+            if (resultType.isInterface()) {
+                return PROJECTIONS.createProjection(resultType, entity);
+            }
+            R result = BeanUtils.instantiateClass(resultType);
+            BeanUtils.copyProperties(entity, result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package platform.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+// Índice invertido de título y descripción: una búsqueda solo recorre las propuestas que contienen sus términos.
+// El título pesa tres veces más, como en el índice de texto declarado en Proposal.
+final class InMemoryTextIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+
+    // término → (id de propuesta → frecuencia ponderada)
+    private final ConcurrentMap<String, ConcurrentMap<String, Integer>> postings = new ConcurrentHashMap<>();
+    // Términos de cada propuesta, para poder sacarla del índice
+    private final ConcurrentMap<String, Map<String, Integer>> terms = new ConcurrentHashMap<>();
+
+    void index(String id, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        SpanishAnalyzer.tokens(title).forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+        SpanishAnalyzer.tokens(description).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        Map<String, Integer> previous = terms.put(id, frequencies);
+        if (previous != null) {
+            previous.keySet().stream().filter(term -> !frequencies.containsKey(term)).forEach(term -> unpost(term, id));
+        }
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, frequency));
+    }
+
+    void remove(String id) {
+        Map<String, Integer> previous = terms.remove(id);
+        if (previous != null) {
+            previous.keySet().forEach(term -> unpost(term, id));
+        }
+    }
+
+    private void unpost(String term, String id) {
+        postings.computeIfPresent(term, (key, documents) -> {
+            documents.remove(id);
+            return documents.isEmpty() ? null : documents;
+        });
+    }
+
+    // Suma por término la frecuencia ponderada por su rareza (idf), así una palabra común pesa menos.
+    // Devuelve los limit ids (con su puntaje) más relevantes que acepta el filtro, de mayor a menor relevancia (a igual puntaje, el más nuevo).
+    List<Map.Entry<String, Double>> search(String text, int limit, Predicate<String> filter) {
+        List<String> queryTerms = SpanishAnalyzer.tokens(text).stream().distinct().toList();
+        int total = Math.max(1, terms.size());
+        Map<String, Double> scores = new HashMap<>();
+        for (String term : queryTerms) {
+            Map<String, Integer> documents = postings.get(term);
+            if (documents == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (double) total / documents.size());
+            documents.forEach((id, frequency) -> scores.merge(id, frequency * idf, Double::sum));
+        }
+
+        // Montículo de tamaño limit con el menos relevante arriba: no se ordenan todas las coincidencias
+        Comparator<Map.Entry<String, Double>> relevance = Map.Entry.<String, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(limit + 1, relevance);
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            // El filtro se evalúa solo para los que entrarían al montículo
+            if (top.size() == limit && relevance.compare(entry, top.peek()) <= 0) {
+                continue;
+            }
+            if (!filter.test(entry.getKey())) {
+                continue;
+            }
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+}
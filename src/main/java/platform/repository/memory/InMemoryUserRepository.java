@@ -0,0 +1,153 @@
+package platform.repository.memory;
+
+import entities.user.User;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import platform.repository.UserRepository;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Usuarios en memoria con los mismos índices únicos que la colección users
+@Repository
+@Profile("in-memory")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+    // Índices secundarios valor -> id: findByDocument y findByEmail no recorren la colección
+    private final ConcurrentMap<String, String> idsByDocument = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> idsByEmail = new ConcurrentHashMap<>();
+
+    public InMemoryUserRepository() {
+        super(new ConcurrentHashMap<>());
+    }
+
+    @Override
+    protected String idOf(User user) {
+        return user.getId();
+    }
+
+    @Override
+    protected void assignId(User user, String id) {
+        user.setId(id);
+    }
+
+    // Conserva la subclase (Citizen, Mayor, Moderator) como lo hace el _class de MongoDB
+    @Override
+    protected User copy(User user) {
+        User copy = BeanUtils.instantiateClass(user.getClass());
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+
+    // El compute serializa las escrituras del mismo id; putIfAbsent en los índices resuelve las de ids distintos
+    @Override
+    protected void store(User user, boolean insert) {
+        User stored = copy(user);
+        String id = stored.getId();
+        documents.compute(id, (key, current) -> {
+            if (current != null && insert) {
+                throw duplicateKey("_id_", id);
+            }
+            boolean documentReserved = reserve(idsByDocument, User.DOCUMENT_INDEX, stored.getDocument(), id);
+            try {
+                reserve(idsByEmail, User.EMAIL_INDEX, stored.getEmail(), id);
+            } catch (DuplicateKeyException e) {
+                if (documentReserved) {
+                    idsByDocument.remove(stored.getDocument(), id);
+                }
+                throw e;
+            }
+            if (current != null) {
+                releaseIfChanged(idsByDocument, current.getDocument(), stored.getDocument(), id);
+                releaseIfChanged(idsByEmail, current.getEmail(), stored.getEmail(), id);
+            }
+            return stored;
+        });
+    }
+
+    // true si la entrada se creó en esta llamada
+    private static boolean reserve(ConcurrentMap<String, String> index, String indexName, String value, String id) {
+        if (value == null) {
+            return false;
+        }
+        String owner = index.putIfAbsent(value, id);
+        if (owner != null && !owner.equals(id)) {
+            throw duplicateKey(indexName, value);
+        }
+        return owner == null;
+    }
+
+    private static void releaseIfChanged(ConcurrentMap<String, String> index, String previous, String current, String id) {
+        if (previous != null && !previous.equals(current)) {
+            index.remove(previous, id);
+        }
+    }
+
+    @Override
+    protected User remove(String id) {
+        User removed = documents.remove(id);
+        if (removed != null) {
+            if (removed.getDocument() != null) {
+                idsByDocument.remove(removed.getDocument(), id);
+            }
+            if (removed.getEmail() != null) {
+                idsByEmail.remove(removed.getEmail(), id);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public User findByDocument(String document) {
+        return findIndexed(idsByDocument, document, User::getDocument);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return findIndexed(idsByEmail, email, User::getEmail);
+    }
+
+    // Entre la reserva en el índice y la escritura del documento el índice puede adelantarse; se verifica el valor
+    private User findIndexed(ConcurrentMap<String, String> index, String value,
+                             Function<User, String> field) {
+        if (value == null) {
+            return null;
+        }
+        String id = index.get(value);
+        User user = id != null ? documents.get(id) : null;
+        return user != null && value.equals(field.apply(user)) ? copy(user) : null;
+    }
+
+    @Override
+    public void deleteByDocument(String document) {
+        String id = document != null ? idsByDocument.get(document) : null;
+        if (id != null) {
+            remove(id);
+        }
+    }
+
+    @Override
+    public boolean updatePasswordIfUnchanged(String document, String expectedHash, String newHash) {
+        String id = document != null ? idsByDocument.get(document) : null;
+        if (id == null) {
+            return false;
+        }
+        AtomicBoolean modified = new AtomicBoolean();
+        documents.computeIfPresent(id, (key, current) -> {
+            if (!document.equals(current.getDocument()) || !Objects.equals(current.getPassword(), expectedHash)
+                    || Objects.equals(expectedHash, newHash)) {
+                return current;
+            }
+            User updated = copy(current);
+            updated.setPassword(newHash);
+            modified.set(true);
+            return updated;
+        });
+        return modified.get();
+    }
+}
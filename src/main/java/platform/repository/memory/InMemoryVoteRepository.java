@@ -0,0 +1,139 @@
+package platform.repository.memory;
+
+import entities.domain.Vote;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import platform.repository.VoteRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Votos en memoria con el índice único (proposalId, userDocument) agrupado por propuesta.
+// Todas las escrituras de un par pasan por el compute de su entrada, que cumple el papel del índice único.
+@Repository
+@Profile("in-memory")
+public class InMemoryVoteRepository extends InMemoryRepository<Vote> implements VoteRepository {
+
+    private static final String PROPOSAL_USER_INDEX = "proposal_user";
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Vote>> votesByProposal = new ConcurrentHashMap<>();
+
+    public InMemoryVoteRepository() {
+        super(new ConcurrentHashMap<>());
+    }
+
+    @Override
+    protected String idOf(Vote vote) {
+        return vote.getId();
+    }
+
+    @Override
+    protected void assignId(Vote vote, String id) {
+        vote.setId(id);
+    }
+
+    @Override
+    protected Vote copy(Vote source) {
+        Vote vote = new Vote();
+        vote.setId(source.getId());
+        vote.setProposalId(source.getProposalId());
+        vote.setUserDocument(source.getUserDocument());
+        vote.setInFavor(source.isInFavor());
+        return vote;
+    }
+
+    private ConcurrentMap<String, Vote> votesOf(String proposalId) {
+        return votesByProposal.computeIfAbsent(proposalId, id -> new ConcurrentHashMap<>());
+    }
+
+    @Override
+    protected void store(Vote vote, boolean insert) {
+        Vote stored = copy(vote);
+        Objects.requireNonNull(stored.getProposalId(), "proposalId");
+        Objects.requireNonNull(stored.getUserDocument(), "userDocument");
+        String id = stored.getId();
+        Vote previous = documents.get(id);
+        if (previous != null && insert) {
+            throw duplicateKey("_id_", id);
+        }
+        votesOf(stored.getProposalId()).compute(stored.getUserDocument(), (user, current) -> {
+            if (current != null && !current.getId().equals(id)) {
+                throw duplicateKey(PROPOSAL_USER_INDEX, stored.getProposalId() + ", " + user);
+            }
+            documents.put(id, stored);
+            return stored;
+        });
+        // El save cambió la propuesta o el ciudadano de un voto existente: se libera el par anterior
+        if (previous != null && !(previous.getProposalId().equals(stored.getProposalId())
+                && previous.getUserDocument().equals(stored.getUserDocument()))) {
+            votesOf(previous.getProposalId()).remove(previous.getUserDocument(), previous);
+        }
+    }
+
+    @Override
+    protected Vote remove(String id) {
+        Vote vote = documents.get(id);
+        if (vote == null) {
+            return null;
+        }
+        Vote[] removed = new Vote[1];
+        votesOf(vote.getProposalId()).computeIfPresent(vote.getUserDocument(), (user, current) -> {
+            if (!current.getId().equals(id)) {
+                return current;
+            }
+            removed[0] = documents.remove(id);
+            return null;
+        });
+        return removed[0];
+    }
+
+    // Como el findAndModify con upsert: el id se conserva si el voto existía y se devuelve el estado anterior
+    @Override
+    public Vote upsert(Vote vote) {
+        Vote[] previous = new Vote[1];
+        votesOf(vote.getProposalId()).compute(vote.getUserDocument(), (user, current) -> {
+            previous[0] = current;
+            Vote next = new Vote();
+            next.setId(current != null ? current.getId() : newId());
+            next.setProposalId(vote.getProposalId());
+            next.setUserDocument(user);
+            next.setInFavor(vote.isInFavor());
+            documents.put(next.getId(), next);
+            return next;
+        });
+        return previous[0] != null ? copy(previous[0]) : null;
+    }
+
+    // Cada voto pasa por el compute de su par, igual que el upsert condicional de MongoDB
+    @Override
+    public List<Change> upsertAll(List<Vote> votes) {
+        List<Change> changes = new ArrayList<>(votes.size());
+        for (Vote vote : votes) {
+            Vote previous = upsert(vote);
+            changes.add(previous == null ? Change.ADDED
+                    : previous.isInFavor() != vote.isInFavor() ? Change.CHANGED : Change.UNCHANGED);
+        }
+        return changes;
+    }
+
+    @Override
+    public long countByProposalIdAndInFavor(String proposalId, boolean inFavor) {
+        Map<String, Vote> proposalVotes = votesByProposal.get(proposalId);
+        if (proposalVotes == null) {
+            return 0;
+        }
+        return proposalVotes.values().stream().filter(vote -> vote.isInFavor() == inFavor).count();
+    }
+
+    @Override
+    public void deleteByProposalId(String proposalId) {
+        Map<String, Vote> proposalVotes = votesByProposal.get(proposalId);
+        if (proposalVotes != null) {
+            proposalVotes.values().forEach(vote -> remove(vote.getId()));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package platform.repository.memory;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Tokenización equivalente a la del índice de texto en español de MongoDB: minúsculas, sin tildes,
+// sin palabras vacías y reducida a una raíz liviana para que singular y plural coincidan
+final class SpanishAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "ante", "con", "como", "de", "del", "desde", "e", "el", "en", "entre", "es", "esa", "ese",
+            "esta", "este", "estas", "estos", "hasta", "la", "las", "le", "les", "lo", "los", "mas", "muy", "ni",
+            "o", "para", "pero", "por", "que", "se", "sin", "sobre", "su", "sus", "u", "un", "una", "unas", "unos", "y", "ya");
+
+    private SpanishAnalyzer() {
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(stem(token));
+            }
+        }
+        return tokens;
+    }
+
+    // Mismas reglas que el stemmer liviano de español de Lucene: quita la vocal final y el plural (luces → luz)
+    static String stem(String token) {
+        int length = token.length();
+        if (length < 5) {
+            return token;
+        }
+        char last = token.charAt(length - 1);
+        if (last == 'o' || last == 'a' || last == 'e') {
+            return token.substring(0, length - 1);
+        }
+        if (last == 's') {
+            char beforeLast = token.charAt(length - 2);
+            if (beforeLast == 'e' && token.charAt(length - 3) == 's' && token.charAt(length - 4) == 'e') {
+                return token.substring(0, length - 2);
+            }
+            if (beforeLast == 'e' && token.charAt(length - 3) == 'c') {
+                return token.substring(0, length - 3) + "z";
+            }
+            if (beforeLast == 'o' || beforeLast == 'a' || beforeLast == 'e') {
+                return token.substring(0, length - 2);
+            }
+        }
+        return token;
+    }
+}
@@ -0,0 +1,46 @@
+package platform.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Modo línea de comandos: --platform.import.file=registro.csv --spring.main.web-application-type=none
+@Component
+@ConditionalOnProperty(prefix = "platform.import", name = "file")
+public class CitizenImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CitizenImportRunner.class);
+
+    private final CitizenImportService citizenImportService;
+    private final Path file;
+
+    public CitizenImportRunner(CitizenImportService citizenImportService,
+                               @Value("${platform.import.file}") String file) {
+        this.citizenImportService = citizenImportService;
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String fileName = file.getFileName().toString().toLowerCase();
+        CitizenImportService.Format format = fileName.endsWith(".csv")
+                ? CitizenImportService.Format.CSV
+                : CitizenImportService.Format.NDJSON;
+        Path reportFile = file.resolveSibling(file.getFileName() + ".report.ndjson");
+
+        log.info("Importing citizens from {}, report in {}", file, reportFile);
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream report = Files.newOutputStream(reportFile)) {
+            citizenImportService.importCitizens(in, format, report);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package platform.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import entities.user.Citizen;
+import entities.user.User;
+import exception.BadRequestException;
+import exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importa ciudadanos del registro civil leyendo el archivo como stream: solo un lote está en memoria a la vez
+@Service
+public class CitizenImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CitizenImportService.class);
+    private static final List<String> CSV_COLUMNS = List.of("document", "name", "email", "password", "address");
+
+    public enum Format { CSV, NDJSON }
+
+    public record Summary(long processed, long imported, long failed, long elapsedMillis) {
+    }
+
+    private final UserService userService;
+    private final MongoTemplate mongoTemplate;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ExecutorService hashingExecutor;
+    private final Semaphore imports = new Semaphore(1);
+
+    public CitizenImportService(UserService userService, MongoTemplate mongoTemplate,
+                                BCryptPasswordEncoder passwordEncoder, ObjectMapper objectMapper,
+                                @Value("${platform.import.batch-size:500}") int batchSize,
+                                @Value("${platform.import.hashing-threads:0}") int hashingThreads) {
+        this.userService = userService;
+        this.mongoTemplate = mongoTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        // Pool propio para no competir con los logins que usan PasswordHasher
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    // Una sola importación a la vez: el hashing ya ocupa todos los núcleos del pool
+    public Summary importCitizens(InputStream in, Format format, OutputStream report) throws IOException {
+        if (!imports.tryAcquire()) {
+            throw new TooManyRequestsException("An import is already in progress", 60);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(report)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            return new Run(reader, format, generator).execute();
+        } finally {
+            imports.release();
+        }
+    }
+
+    private record Row(long line, Citizen citizen) {
+    }
+
+    // Estado de una importación en curso
+    private class Run {
+        private final BufferedReader reader;
+        private final Format format;
+        private final JsonGenerator report;
+        private final long start = System.nanoTime();
+        private List<String> columns = CSV_COLUMNS;
+        private long processed;
+        private long imported;
+        private long failed;
+
+        Run(BufferedReader reader, Format format, JsonGenerator report) {
+            this.reader = reader;
+            this.format = format;
+            this.report = report;
+        }
+
+        Summary execute() throws IOException {
+            List<Row> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && lineNumber == 1) {
+                    columns = parseCsvLine(line).stream().map(column -> column.trim().toLowerCase()).toList();
+                    continue;
+                }
+
+                processed++;
+                Citizen citizen = parseAndValidate(lineNumber, line);
+                if (citizen != null) {
+                    batch.add(new Row(lineNumber, citizen));
+                }
+                if (batch.size() == batchSize) {
+                    flush(batch);
+                }
+            }
+            flush(batch);
+
+            Summary summary = new Summary(processed, imported, failed, elapsedMillis());
+            Map<String, Object> event = counters("summary");
+            event.put("elapsedMillis", summary.elapsedMillis());
+            write(event);
+            log.info("Citizen import finished: {} imported, {} failed in {} ms", imported, failed, summary.elapsedMillis());
+            return summary;
+        }
+
+        private Citizen parseAndValidate(long lineNumber, String line) throws IOException {
+            Citizen citizen = null;
+            try {
+                citizen = format == Format.CSV ? fromCsv(line) : objectMapper.readValue(line, Citizen.class);
+                if (citizen == null) {
+                    throw new IllegalArgumentException("Empty row");
+                }
+                userService.validateUserData(citizen);
+                return citizen;
+            } catch (BadRequestException e) {
+                reportError(lineNumber, citizen.getDocument(), e.getMessage());
+            } catch (IOException | IllegalArgumentException e) {
+                reportError(lineNumber, null, "Malformed row");
+            }
+            return null;
+        }
+
+        private Citizen fromCsv(String line) {
+            List<String> values = parseCsvLine(line);
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " columns");
+            }
+            Citizen citizen = new Citizen();
+            for (int i = 0; i < columns.size(); i++) {
+                String value = values.get(i);
+                switch (columns.get(i)) {
+                    case "document" -> citizen.setDocument(value);
+                    case "name" -> citizen.setName(value);
+                    case "email" -> citizen.setEmail(value);
+                    case "password" -> citizen.setPassword(value);
+                    case "address" -> citizen.setAddress(value);
+                    default -> { }
+                }
+            }
+            return citizen;
+        }
+
+        // Hashea el lote en paralelo y lo inserta en orden; un duplicado se reporta y se sigue con la fila siguiente
+        private void flush(List<Row> batch) throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<CompletableFuture<String>> hashes = batch.stream()
+                    .map(row -> CompletableFuture.supplyAsync(
+                            () -> passwordEncoder.encode(row.citizen().getPassword()), hashingExecutor))
+                    .toList();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).citizen().setPassword(hashes.get(i).join());
+                }
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Password hashing failed", e.getCause());
+            }
+
+            int from = 0;
+            while (from < batch.size()) {
+                List<Row> pending = batch.subList(from, batch.size());
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Citizen.class,
+                        mongoTemplate.getCollectionName(User.class));
+                pending.forEach(row -> bulk.insert(row.citizen()));
+                try {
+                    bulk.execute();
+                    imported += pending.size();
+                    break;
+                } catch (BulkOperationException e) {
+                    // En modo ordenado Mongo se detiene en la primera fila rechazada; las anteriores ya quedaron insertadas
+                    BulkWriteError error = e.getErrors().getFirst();
+                    Row rejected = pending.get(error.getIndex());
+                    imported += error.getIndex();
+                    String message = error.getCode() == 11000
+                            ? UserService.duplicateUserMessage(error.getMessage())
+                            : error.getMessage();
+                    reportError(rejected.line(), rejected.citizen().getDocument(), message);
+                    from += error.getIndex() + 1;
+                }
+            }
+            batch.clear();
+
+            Map<String, Object> event = counters("progress");
+            event.put("rowsPerSecond", Math.round(processed * 1000.0 / Math.max(1, elapsedMillis())));
+            write(event);
+            log.info("Citizen import progress: {} rows processed, {} imported, {} failed, {} rows/s",
+                    processed, imported, failed, event.get("rowsPerSecond"));
+        }
+
+        private void reportError(long lineNumber, String document, String error) throws IOException {
+            failed++;
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "error");
+            event.put("line", lineNumber);
+            event.put("document", document);
+            event.put("error", error);
+            write(event);
+        }
+
+        private Map<String, Object> counters(String type) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", type);
+            event.put("processed", processed);
+            event.put("imported", imported);
+            event.put("failed", failed);
+            return event;
+        }
+
+        private void write(Map<String, Object> event) throws IOException {
+            objectMapper.writeValue(report, event);
+            report.writeRaw('\n');
+            report.flush();
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    // CSV de una línea por registro con comillas dobles opcionales ("" escapa una comilla)
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>(CSV_COLUMNS.size());
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -1,29 +1,31 @@
 package platform.service;
 
-import entities.domain.Proposal;
 import exception.BadRequestException;
 import org.springframework.stereotype.Service;
+import platform.cache.ProposalReadCache;
 import platform.repository.ProposalRepository;
 
 @Service
 public class ModeratorService {
 
     private final ProposalRepository repository;
+    private final ProposalReadCache cache;
 
-    public ModeratorService(ProposalRepository repository) {
+    public ModeratorService(ProposalRepository repository, ProposalReadCache cache) {
         this.repository = repository;
+        this.cache = cache;
     }
 
     public void deleteComment(String proposalId, String commentId) {
-        Proposal proposal = repository.findById(proposalId)
-                .orElseThrow(() -> new BadRequestException("Proposal not found"));
-
-        boolean removed = proposal.getComments().removeIf(comment -> comment.getId().equals(commentId));
-
-        if (!removed) {
-            throw new BadRequestException("Comment not found");
+        if (repository.pullComment(proposalId, commentId)) {
+            cache.invalidate(proposalId);
+            return;
         }
 
-        repository.save(proposal);
+        // Solo se distingue el motivo cuando la eliminación no encontró nada
+        if (!repository.existsById(proposalId)) {
+            throw new BadRequestException("Proposal not found");
+        }
+        throw new BadRequestException("Comment not found");
     }
 }
@@ -0,0 +1,87 @@
+package platform.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.domain.ProposalSummary;
+import exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import platform.repository.ProposalRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class ProposalExportService {
+
+    private final ProposalRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exports;
+
+    public ProposalExportService(ProposalRepository repository, ObjectMapper objectMapper,
+                                 @Value("${platform.export.max-concurrent:2}") int maxConcurrentExports) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.exports = new Semaphore(maxConcurrentExports);
+    }
+
+    // Reserva un lugar para la exportación antes de responder, así un exceso se rechaza con 429 y no con un stream cortado
+    public Export export(Instant since, boolean gzip) {
+        if (!exports.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports in progress", 30);
+        }
+        return new Export(since, gzip);
+    }
+
+    // El lugar se libera una sola vez: al terminar de escribir o al cerrarse el request asíncrono sin que el cuerpo
+    // haya llegado a correr (cliente que cortó, timeout o executor que rechazó la tarea)
+    public final class Export implements StreamingResponseBody {
+        private final Instant since;
+        private final boolean gzip;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Export(Instant since, boolean gzip) {
+            this.since = since;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    writeNdjson(since, compressed);
+                    compressed.finish();
+                } else {
+                    writeNdjson(since, out);
+                }
+            } finally {
+                release();
+            }
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                exports.release();
+            }
+        }
+    }
+
+    // Escribe una propuesta por línea a medida que llegan del cursor, sin acumularlas en memoria
+    public void writeNdjson(Instant since, OutputStream out) throws IOException {
+        try (Stream<ProposalSummary> proposals = repository.streamSummaries(since);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (ProposalSummary proposal : (Iterable<ProposalSummary>) proposals::iterator) {
+                objectMapper.writeValue(generator, proposal);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
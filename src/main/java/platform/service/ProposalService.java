@@ -1,30 +1,125 @@
 package platform.service;
 
 import entities.domain.Comment;
+import entities.domain.CursorPage;
 import entities.domain.Proposal;
+import entities.domain.ProposalResult;
+import entities.domain.ProposalSearchHit;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
 import entities.domain.Vote;
 import exception.BadRequestException;
+import exception.PreconditionFailedException;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import platform.cache.ProposalReadCache;
+import platform.ingestion.TallyRecounter;
+import platform.ingestion.WriteBehindVoteBuffer;
+import platform.live.TallyBroadcaster;
 import platform.repository.ProposalRepository;
+import platform.repository.ProposalRepositoryCustom;
+import platform.repository.VoteRepository;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @Service
 public class ProposalService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_LENGTH = 200;
+
     private final ProposalRepository repository;
+    private final VoteRepository voteRepository;
+    private final Optional<WriteBehindVoteBuffer> voteBuffer;
+    private final ProposalReadCache cache;
+    private final TallyBroadcaster broadcaster;
+    private final TallyRecounter recounter;
 
-    public ProposalService(ProposalRepository repository) {
+    public ProposalService(ProposalRepository repository, VoteRepository voteRepository,
+                           Optional<WriteBehindVoteBuffer> voteBuffer, ProposalReadCache cache,
+                           TallyBroadcaster broadcaster, TallyRecounter recounter) {
         this.repository = repository;
+        this.voteRepository = voteRepository;
+        this.voteBuffer = voteBuffer;
+        this.cache = cache;
+        this.broadcaster = broadcaster;
+        this.recounter = recounter;
     }
 
     public List<Proposal> getAll() {
         return repository.findAll();
     }
 
+    public ProposalRepositoryCustom.Fingerprint getFingerprint() {
+        return repository.fingerprint();
+    }
+
+    public Proposal get(String id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Proposal not found"));
+    }
+
+    // Permite responder un GET condicional sin leer el documento completo
+    public long getVersion(String id) {
+        Long version = repository.findVersion(id);
+        if (version == null) {
+            throw new BadRequestException("Proposal not found");
+        }
+        return version;
+    }
+
+    public CursorPage<ProposalSummary> list(String cursor, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                            String authorDocument, int size) {
+        validateSummaryPage(cursor, size);
+        ProposalReadCache.PageKey key = new ProposalReadCache.PageKey(cursor, limitDateFrom, limitDateTo, authorDocument, size);
+        return cache.page(key, () -> {
+            // Se pide un elemento extra para saber si existe una página siguiente
+            List<ProposalSummary> items = repository.findSummaries(cursor, limitDateFrom, limitDateTo, authorDocument, size + 1);
+            return toSummaryPage(items, size);
+        });
+    }
+
+    public List<ProposalSearchHit> search(String text, String status, int size) {
+        if (text == null || text.isBlank() || text.length() > MAX_SEARCH_LENGTH) {
+            throw new BadRequestException("Search text must have between 1 and " + MAX_SEARCH_LENGTH + " characters");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        ProposalRepositoryCustom.Status parsedStatus = null;
+        if (status != null) {
+            try {
+                parsedStatus = ProposalRepositoryCustom.Status.valueOf(status.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Status must be open or closed");
+            }
+        }
+        return repository.search(text.trim(), parsedStatus, size);
+    }
+
+    static void validateSummaryPage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (cursor != null && !ObjectId.isValid(cursor)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    static CursorPage<ProposalSummary> toSummaryPage(List<ProposalSummary> items, int size) {
+        if (items.size() <= size) {
+            return new CursorPage<>(items, null);
+        }
+        List<ProposalSummary> page = items.subList(0, size);
+        return new CursorPage<>(page, page.getLast().getId());
+    }
+
     public Proposal create(Proposal proposal) {
         if (proposal.getTitle() == null || proposal.getDescription() == null
               || proposal.getLimitDate() == null) {
@@ -32,10 +127,22 @@ public class ProposalService {
         }
         String userDocument = SecurityContextHolder.getContext().getAuthentication().getName();
         proposal.setAuthorDocument(userDocument);
-        return repository.save(proposal);
+        proposal.setInFavorCount(0);
+        proposal.setAgainstCount(0);
+        proposal.setUpdatedAt(Instant.now());
+        // Sin versión el save es un insert y la propuesta arranca en la versión 0
+        proposal.setVersion(null);
+        Proposal saved = repository.save(proposal);
+        cache.proposalCreated();
+        return saved;
     }
 
     public void delete(String id) {
+        delete(id, null);
+    }
+
+    // Con expectedVersion el borrado solo procede si nadie modificó la propuesta desde que el cliente la leyó
+    public void delete(String id, Long expectedVersion) {
         Proposal proposal = repository.findById(id)
                 .orElseThrow(() -> new BadRequestException("Proposal not found"));
 
@@ -44,38 +151,163 @@ public class ProposalService {
         if(!proposal.getAuthorDocument().equals(userDocument)){
             throw new BadRequestException("Only the author can delete the proposal");
         }
-        repository.deleteById(id);
+        if (expectedVersion == null) {
+            repository.deleteById(id);
+        } else if (!expectedVersion.equals(versionOf(proposal)) || !repository.deleteIfVersion(id, proposal.getVersion())) {
+            throw new PreconditionFailedException("Proposal was modified");
+        }
+        voteRepository.deleteByProposalId(id);
+        cache.invalidate(id);
     }
 
-    public Proposal comment(String proposalId, Comment comment) {
-        Proposal proposal = repository.findById(proposalId)
-                .orElseThrow(() -> new BadRequestException("Proposal not found"));
+    public Comment comment(String proposalId, Comment comment) {
+        return comment(proposalId, comment, null);
+    }
 
+    public Comment comment(String proposalId, Comment comment, Long expectedVersion) {
         String userDocument = SecurityContextHolder.getContext().getAuthentication().getName();
 
+        // El ObjectId ordena por fecha de creación y permite a los moderadores identificar el comentario
+        comment.setId(new ObjectId().toHexString());
         comment.setUserDocument(userDocument);
         comment.setPublishDate(LocalDate.now());
 
-        if (proposal.getComments() == null) proposal.setComments(new ArrayList<>());
-        proposal.getComments().add(comment);
+        if (!repository.pushComment(proposalId, comment, expectedVersion)) {
+            // La escritura ya filtra por propuesta abierta; solo ante un rechazo se averigua el motivo
+            requireOpen(proposalId);
+            throw new PreconditionFailedException("Proposal was modified");
+        }
+        cache.invalidate(proposalId);
+        return comment;
+    }
 
-        return repository.save(proposal);
+    // Lee solo closedAt y limitDate: rechazar una escritura no carga el documento
+    private void requireOpen(String proposalId) {
+        Boolean open = repository.isOpen(proposalId);
+        if (open == null) {
+            throw new BadRequestException("Proposal not found");
+        }
+        if (!open) {
+            throw new BadRequestException("Proposal is closed");
+        }
     }
 
-    public Proposal vote(String proposalId, Vote vote) {
-        Proposal proposal = repository.findById(proposalId)
-                .orElseThrow(() -> new BadRequestException("Proposal not found"));
+    public ProposalResult getResult(String proposalId) {
+        ProposalResult result = repository.findResult(proposalId);
+        if (result == null) {
+            throw new BadRequestException("Proposal results are not available");
+        }
+        return result;
+    }
 
-        String userDocument = SecurityContextHolder.getContext().getAuthentication().getName();
+    private static long versionOf(Proposal proposal) {
+        return proposal.getVersion() != null ? proposal.getVersion() : 0L;
+    }
 
-        if (proposal.getVotes() == null) proposal.setVotes(new ArrayList<>());
+    public CursorPage<Comment> getComments(String proposalId, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDate afterPublishDate = null;
+        String afterId = null;
+        if (cursor != null) {
+            // El cursor es "publishDate_id" del último comentario de la página anterior
+            int separator = cursor.indexOf('_');
+            try {
+                afterPublishDate = LocalDate.parse(cursor.substring(0, separator));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            afterId = cursor.substring(separator + 1);
+            if (!ObjectId.isValid(afterId)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        LocalDate publishedAfter = afterPublishDate;
+        String commentAfter = afterId;
+        return cache.comments(new ProposalReadCache.CommentsKey(proposalId, cursor, size), () -> {
+            List<Comment> items = repository.findComments(proposalId, publishedAfter, commentAfter, size + 1);
+            if (items.isEmpty() && !repository.existsById(proposalId)) {
+                throw new BadRequestException("Proposal not found");
+            }
+            if (items.size() <= size) {
+                return new CursorPage<>(items, null);
+            }
+            List<Comment> page = items.subList(0, size);
+            Comment last = page.getLast();
+            return new CursorPage<>(page, last.getPublishDate() + "_" + last.getId());
+        });
+    }
+
+    // Devuelve null cuando el voto quedó aceptado en el buffer de escritura diferida y aún no se refleja en el conteo
+    public Tally vote(String proposalId, Vote vote) {
+        String userDocument = SecurityContextHolder.getContext().getAuthentication().getName();
+        vote.setId(null);
+        vote.setProposalId(proposalId);
         vote.setUserDocument(userDocument);
 
-        if(proposal.getVotes().stream().anyMatch(v -> v.getUserDocument().equals(userDocument))){
-            proposal.getVotes().removeIf(v -> v.getUserDocument().equals(userDocument));
+        if (voteBuffer.isPresent()) {
+            voteBuffer.get().accept(vote);
+            return null;
         }
-        proposal.getVotes().add(vote);
 
-        return repository.save(proposal);
+        // La época se lee antes de escribir el voto: si un recálculo la cambia, ese conteo pudo haber incluido el voto
+        ProposalRepositoryCustom.VoteTarget target = repository.findVoteTarget(proposalId);
+        if (target == null) {
+            throw new BadRequestException("Proposal not found");
+        }
+        if (!target.open()) {
+            throw new BadRequestException("Proposal is closed");
+        }
+
+        Vote previous = voteRepository.upsert(vote);
+
+        Tally delta = voteDelta(previous, vote);
+        Tally tally;
+        try {
+            tally = delta != null
+                    ? repository.incrementTally(proposalId, target.tallyEpoch(), delta.getInFavor(), delta.getAgainst())
+                    : repository.findTally(proposalId);
+        } catch (OptimisticLockingFailureException e) {
+            // Un recálculo corrió entre el voto y el $inc: no se sabe si lo contó, así que se vuelve a contar
+            recounter.schedule(proposalId);
+            tally = repository.findTally(proposalId);
+        } catch (RuntimeException e) {
+            // El voto ya quedó escrito y no se sabe si el $inc llegó a aplicarse: el conteo se recalcula después
+            recounter.schedule(proposalId);
+            throw e;
+        }
+
+        if (tally == null) {
+            // La propuesta se borró entre la lectura de la época y el upsert; el borrado pudo no ver este voto
+            voteRepository.deleteByProposalId(proposalId);
+            throw new BadRequestException("Proposal not found");
+        }
+        if (delta != null) {
+            cache.votesChanged(proposalId);
+            broadcaster.tallyChanged(proposalId);
+        }
+        return tally;
+    }
+
+    // Un voto nuevo suma uno; un cambio de opinión mueve uno de un contador al otro; repetir el voto no cambia nada (null)
+    static Tally voteDelta(Vote previous, Vote vote) {
+        if (previous == null) {
+            return new Tally(vote.getProposalId(), vote.isInFavor() ? 1 : 0, vote.isInFavor() ? 0 : 1);
+        }
+        if (previous.isInFavor() != vote.isInFavor()) {
+            return new Tally(vote.getProposalId(), vote.isInFavor() ? 1 : -1, vote.isInFavor() ? -1 : 1);
+        }
+        return null;
+    }
+
+    public Tally getTally(String proposalId) {
+        Tally tally = cache.tally(proposalId, () -> repository.findTally(proposalId));
+        if (tally == null) {
+            throw new BadRequestException("Proposal not found");
+        }
+        return tally;
     }
 }
@@ -5,27 +5,33 @@ import entities.user.Mayor;
 import entities.user.Moderator;
 import entities.user.User;
 import exception.BadRequestException;
-import org.springframework.beans.factory.annotation.Autowired;
+import exception.TooManyRequestsException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import platform.repository.UserRepository;
 import security.JwtResponse;
 import security.JwtService;
+import security.PasswordHasher;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 @Service
 public class UserService {
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+    private static final int[] DOCUMENT_WEIGHTS = {2, 9, 8, 7, 6, 3, 4};
+
     private final UserRepository userRepository;
     private final JwtService jwtService;
-    @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
-    public UserService(UserRepository userRepository, JwtService jwtService) {
+    public UserService(UserRepository userRepository, JwtService jwtService, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
+        this.passwordHasher = passwordHasher;
     }
 
     public List<User> getAll() {
@@ -34,41 +40,47 @@ public class UserService {
 
     public String createCitizen(Citizen citizen) {
         validateDataAndEncodePassword(citizen);
-        userRepository.save(citizen);
+        saveUnique(citizen);
         return "Citizen created successfully";
     }
 
     public String createModerator(Moderator moderator) {
         validateDataAndEncodePassword(moderator);
-        userRepository.save(moderator);
+        saveUnique(moderator);
         return "Moderator created successfully";
     }
 
     public String createMayor(Mayor mayor) {
         validateDataAndEncodePassword(mayor);
-        userRepository.save(mayor);
+        saveUnique(mayor);
         return "Mayor created successfully";
     }
 
-    public ResponseEntity<?> login(String email, String password) {
+    // La verificación BCrypt corre en el pool de PasswordHasher; el hilo del request queda libre mientras tanto
+    public CompletableFuture<ResponseEntity<?>> login(String email, String password) {
         User user = userRepository.findByEmail(email);
         if(user==null){
             throw new BadRequestException("User not found");
         }
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            throw new BadRequestException("Invalid credentials");
-        }
-
-        String role = switch (user) {
-            case Moderator moderator -> "Moderator";
-            case Citizen citizen -> "Citizen";
-            case Mayor mayor -> "Mayor";
-            default -> throw new BadRequestException("Unknown role");
-        };
-
-        String token = jwtService.generateToken(user.getDocument(), role);
-        return ResponseEntity.ok(new JwtResponse(token));
+        return passwordHasher.matches(password, user.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                throw new BadRequestException("Invalid credentials");
+            }
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                rehash(user, password);
+            }
+
+            String role = switch (user) {
+                case Moderator moderator -> "Moderator";
+                case Citizen citizen -> "Citizen";
+                case Mayor mayor -> "Mayor";
+                default -> throw new BadRequestException("Unknown role");
+            };
+
+            String token = jwtService.generateToken(user.getDocument(), role);
+            return ResponseEntity.ok(new JwtResponse(token));
+        });
     }
 
     public void delete(String document) {
@@ -86,7 +98,7 @@ public class UserService {
         existingUser.setName(user.getName() != null ? user.getName() : existingUser.getName());
         existingUser.setEmail(user.getEmail() != null ? user.getEmail() : existingUser.getEmail());
         existingUser.setPassword(user.getPassword() !=null ? user.getPassword() : existingUser.getPassword());
-        userRepository.save(existingUser);
+        saveUnique(existingUser);
     }
 
     private void validateDataAndEncodePassword(User user) {
@@ -94,60 +106,72 @@ public class UserService {
         encodePassword(user);
     }
 
-    private void validateUserData(User user) {
+    // Documento y email únicos los garantizan los índices de la colección; acá solo se valida el formato
+    void validateUserData(User user) {
         if(user.getName() == null || user.getDocument() == null || user.getEmail() == null || user.getPassword() == null) {
             throw new BadRequestException("All fields are required");
         }
-        if(userExists(user.getDocument())){
-            throw new BadRequestException("There is already a user with that document");
-        }
         if(!isValidEmail(user.getEmail())){
             throw new BadRequestException("Invalid email format");
         }
-        if(userExistsByEmail(user.getEmail())){
-            throw new BadRequestException("There is already a user with that email");
-        }
         if(!isValidUruguayanDocument(user.getDocument())){
             throw new BadRequestException("Invalid document format");
         }
     }
 
-    private boolean userExists(String document) {
-        return userRepository.findByDocument(document) != null;
+    private void saveUnique(User user) {
+        try {
+            userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException(duplicateUserMessage(e.getMessage()));
+        }
     }
 
-    private boolean isValidEmail(String email) {
-        return email != null && email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+    // Traduce el error de clave duplicada de Mongo según el índice que lo rechazó
+    static String duplicateUserMessage(String mongoErrorMessage) {
+        if (mongoErrorMessage != null && mongoErrorMessage.contains(User.EMAIL_INDEX)) {
+            return "There is already a user with that email";
+        }
+        return "There is already a user with that document";
     }
 
-    private boolean userExistsByEmail(String email) {
-        return userRepository.findByEmail(email) != null;
+    static boolean isValidEmail(String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
 
-    private boolean isValidUruguayanDocument(String ci) {
-        if (ci == null || !ci.matches("\\d{7,8}")) return false;
-
-        while (ci.length() < 8) {
-            ci = "0" + ci;
-        }
+    // Las cédulas de 7 dígitos se tratan como si tuvieran un 0 adelante, sin construir el string completado
+    static boolean isValidUruguayanDocument(String ci) {
+        if (ci == null || ci.length() < 7 || ci.length() > 8) return false;
 
-        int[] weights = {2, 9, 8, 7, 6, 3, 4};
+        int padding = 8 - ci.length();
         int sum = 0;
 
         for (int i = 0; i < 7; i++) {
-            int digit = Character.getNumericValue(ci.charAt(i));
-            sum += digit * weights[i];
+            int digit = i < padding ? 0 : ci.charAt(i - padding) - '0';
+            if (digit < 0 || digit > 9) return false;
+            sum += digit * DOCUMENT_WEIGHTS[i];
         }
 
         int expectedCheckDigit = (10 - (sum % 10)) % 10;
-        int actualCheckDigit = Character.getNumericValue(ci.charAt(7));
+        int actualCheckDigit = ci.charAt(ci.length() - 1) - '0';
 
         return expectedCheckDigit == actualCheckDigit;
     }
 
     private void encodePassword(User user) {
         String rawPassword = user.getPassword();
-        user.setPassword(passwordEncoder.encode(rawPassword));
+        user.setPassword(passwordHasher.encode(rawPassword).join());
+    }
+
+    // El hash tiene un costo menor al calibrado: se regenera en segundo plano sin demorar la respuesta del login
+    private void rehash(User user, String rawPassword) {
+        String currentHash = user.getPassword();
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAccept(newHash -> userRepository.updatePasswordIfUnchanged(user.getDocument(), currentHash, newHash));
+        } catch (TooManyRequestsException e) {
+            // Con el pool saturado se posterga al próximo login exitoso
+        }
     }
 
 }
@@ -0,0 +1,55 @@
+package security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+// Claves y codificadores compartidos por la pila servlet y la reactiva
+@Configuration
+public class CryptoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CryptoConfig.class);
+
+    // Con security.jwt-secret configurado, todos los nodos (servlet y reactivos) aceptan los mismos tokens
+    @Bean
+    public SecretKey jwtSecretKey(SecurityProperties securityProperties) {
+        String secret = securityProperties.getJwtSecret();
+        if (secret == null || secret.isBlank()) {
+            return Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        }
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder(SecurityProperties securityProperties) {
+        return new BCryptPasswordEncoder(calibrateStrength(securityProperties.getPasswordHashing()));
+    }
+
+    // Elige el costo de BCrypt más alto cuyo hash tarda como máximo el tiempo objetivo en este servidor
+    private int calibrateStrength(SecurityProperties.PasswordHashing properties) {
+        int strength = properties.getMinStrength();
+        long targetNanos = properties.getTargetHashTime().toNanos();
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(strength);
+        probe.encode("calibration");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        // Cada punto de costo duplica el tiempo de hash
+        while (strength < properties.getMaxStrength() && elapsed * 2 <= targetNanos) {
+            strength++;
+            elapsed *= 2;
+        }
+        log.info("BCrypt strength calibrated to {} (~{} ms per hash)", strength, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return strength;
+    }
+}
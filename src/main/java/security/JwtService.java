@@ -1,8 +1,20 @@
 package security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,19 +24,45 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
     private final SecretKey secretKey;
+    // El parser es inmutable y thread-safe, así que se construye una sola vez
+    private final JwtParser parser;
+    // Tokens ya verificados, indexados por su SHA-256, hasta que expiran
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final MeterRegistry meterRegistry;
+    // Solo mide las verificaciones reales (fallos de caché): firma HMAC y parseo de los claims
+    private final Timer verificationTimer;
 
-    public JwtService(SecretKey secretKey) {
+    public JwtService(SecretKey secretKey, SecurityProperties securityProperties, MeterRegistry meterRegistry) {
         this.secretKey = secretKey;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(securityProperties.getTokenCacheSize())
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.tokens");
+        this.meterRegistry = meterRegistry;
+        this.verificationTimer = Timer.builder("security.jwt.verification")
+                .description("Time spent verifying JWT signatures and parsing claims")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public String generateToken(String userDocument, String role) {
@@ -37,12 +75,14 @@ public class JwtService {
                 .compact();
     }
 
+    // Un token sin exp sería válido para siempre (y no se sabría hasta cuándo guardarlo en la caché): se rechaza
+    // igual que uno vencido o mal firmado
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        if (jws.getBody().getExpiration() == null) {
+            throw new MissingClaimException(jws.getHeader(), jws.getBody(), "JWT has no expiration");
+        }
+        return jws.getBody();
     }
 
     public boolean validateToken(String token) {
@@ -56,9 +96,50 @@ public class JwtService {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = extractClaims(token);
+        return toAuthentication(toUserDetails(extractClaims(token)));
+    }
+
+    // Verifica el token una sola vez por token distinto; devuelve null si es inválido o expiró
+    public Authentication authenticate(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified == null) {
+            Claims claims;
+            long start = System.nanoTime();
+            try {
+                claims = extractClaims(token);
+            } catch (Exception e) {
+                countFailure(e);
+                return null;
+            } finally {
+                verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            verified = new VerifiedToken(toUserDetails(claims), claims.getExpiration().getTime());
+            verifiedTokens.put(digest, verified);
+        }
+        // Se devuelve una instancia nueva por request para no compartir un Authentication mutable entre hilos
+        return toAuthentication(verified.user());
+    }
+
+    private void countFailure(Exception e) {
+        String reason = switch (e) {
+            case ExpiredJwtException expired -> "expired";
+            case SecurityException signature -> "signature";
+            default -> "malformed";
+        };
+        Counter.builder("security.jwt.failures")
+                .description("Rejected JWTs by reason")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private UserDetails toUserDetails(Claims claims) {
         String userDocument = claims.getSubject();
-        UserDetails userDetails = new User(userDocument, "", getAuthorities(claims));
+        return new User(userDocument, "", getAuthorities(claims));
+    }
+
+    private Authentication toAuthentication(UserDetails userDetails) {
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
@@ -66,5 +147,34 @@ public class JwtService {
         String role = claims.get("role", String.class);
         return Collections.singletonList(new SimpleGrantedAuthority(role));
     }
-}
 
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(UserDetails user, long expiresAtMillis) {
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long millis = Math.max(0, value.expiresAtMillis() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
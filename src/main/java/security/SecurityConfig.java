@@ -1,27 +1,30 @@
 package security;
 
-import io.jsonwebtoken.security.Keys;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import io.jsonwebtoken.SignatureAlgorithm;
-
-import javax.crypto.SecretKey;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtFilter jwtFilter, SecurityProperties securityProperties) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtFilter jwtFilter, SecurityProperties securityProperties,
+                                                   Environment environment) throws Exception {
+        RequestMatcher actuator = actuatorOnInternalPort(environment) ? EndpointRequest.toAnyEndpoint() : request -> false;
         http
                 // Deshabilitamos CSRF (porque es una API RESTful)
                 .csrf(AbstractHttpConfigurer::disable)
@@ -29,6 +32,7 @@ public class SecurityConfig {
                 // Configuramos autorización de peticiones
                 .authorizeRequests()
                 .requestMatchers(securityProperties.getPublicUris().toArray(new String[0])).permitAll() // Permitimos el acceso sin autenticación al login
+                .requestMatchers(actuator).permitAll()
                 .anyRequest().authenticated() // Se requiere autenticación en el resto de las rutas
                 .and()
 
@@ -40,15 +44,9 @@ public class SecurityConfig {
         return http.build();
     }
 
-    @Bean
-    public SecretKey jwtSecretKey() {
-        return Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    }
-
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // Actuator escucha en management.server.port, un puerto interno que el ingress no publica: ahí el scraper de
+    // Prometheus y las sondas entran sin token. Si se lo configura en el puerto de la API, se autentica como el resto
+    static boolean actuatorOnInternalPort(Environment environment) {
+        return ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
     }
 }
-
-
@@ -3,6 +3,7 @@ package security;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,6 +11,10 @@ import java.util.List;
 @ConfigurationProperties(prefix = "security")
 public class SecurityProperties {
     private List<String> publicUris = new ArrayList<>();
+    private long tokenCacheSize = 100_000;
+    // Clave HMAC en Base64 (256 bits o más); vacía genera una clave aleatoria por proceso
+    private String jwtSecret;
+    private PasswordHashing passwordHashing = new PasswordHashing();
 
     public List<String> getPublicUris() {
         return publicUris;
@@ -18,4 +23,86 @@ public class SecurityProperties {
     public void setPublicUris(List<String> publicUris) {
         this.publicUris = publicUris;
     }
+
+    public long getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    public void setTokenCacheSize(long tokenCacheSize) {
+        this.tokenCacheSize = tokenCacheSize;
+    }
+
+    public String getJwtSecret() {
+        return jwtSecret;
+    }
+
+    public void setJwtSecret(String jwtSecret) {
+        this.jwtSecret = jwtSecret;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public void setPasswordHashing(PasswordHashing passwordHashing) {
+        this.passwordHashing = passwordHashing;
+    }
+
+    public static class PasswordHashing {
+        // 0 usa un hilo por núcleo
+        private int threads = 0;
+        private int queueCapacity = 200;
+        private long retryAfterSeconds = 2;
+        private Duration targetHashTime = Duration.ofMillis(250);
+        private int minStrength = 10;
+        private int maxStrength = 14;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(long retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public Duration getTargetHashTime() {
+            return targetHashTime;
+        }
+
+        public void setTargetHashTime(Duration targetHashTime) {
+            this.targetHashTime = targetHashTime;
+        }
+
+        public int getMinStrength() {
+            return minStrength;
+        }
+
+        public void setMinStrength(int minStrength) {
+            this.minStrength = minStrength;
+        }
+
+        public int getMaxStrength() {
+            return maxStrength;
+        }
+
+        public void setMaxStrength(int maxStrength) {
+            this.maxStrength = maxStrength;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package platform.controller;
+
+import entities.domain.IdempotencyRecord;
+import entities.domain.Proposal;
+import entities.domain.Vote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import platform.MongoServerTest;
+import platform.idempotency.IdempotencyFilter;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"platform.rate-limit.endpoints.vote.capacity=5", "platform.rate-limit.endpoints.vote.period=1h"})
+@ActiveProfiles("reactive")
+public class ReactiveProposalControllerTest extends MongoServerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String proposalId;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), Vote.class);
+
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Nueva plaza");
+        proposal.setDescription("Plaza en el barrio");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.now().plusDays(10));
+        proposalId = proposalRepository.save(proposal).getId();
+    }
+
+    @Test
+    void testVoteAndTallyThroughReactiveStack() {
+        String citizen = jwtService.generateToken("49359161", "Citizen");
+        String mayor = jwtService.generateToken("41162211", "Mayor");
+
+        webTestClient.post().uri("/api/proposals/{id}/vote", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + citizen)
+                .bodyValue(Map.of("inFavor", true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.inFavor").isEqualTo(1)
+                .jsonPath("$.against").isEqualTo(0);
+
+        // Cambiar de opinión mueve el voto al otro contador
+        webTestClient.post().uri("/api/proposals/{id}/vote", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + citizen)
+                .bodyValue(Map.of("inFavor", false))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/proposals/{id}/tally", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + mayor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.inFavor").isEqualTo(0)
+                .jsonPath("$.against").isEqualTo(1);
+
+        webTestClient.get().uri("/api/proposals/page?size=10")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + mayor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(proposalId)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void testRolesAndErrorsMatchServletStack() {
+        String citizen = jwtService.generateToken("49359161", "Citizen");
+
+        webTestClient.get().uri("/api/proposals/{id}/tally", proposalId)
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/api/proposals/{id}/tally", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + citizen)
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.post().uri("/api/proposals/{id}/vote", "65a000000000000000000000")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + citizen)
+                .bodyValue(Map.of("inFavor", true))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Proposal not found");
+    }
+
+    @Test
+    void testVoteIsIdempotentAndRateLimited() {
+        String citizen = "Bearer " + jwtService.generateToken("30111222", "Citizen");
+
+        byte[] first = webTestClient.post().uri("/api/proposals/{id}/vote", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, citizen)
+                .header(IdempotencyFilter.HEADER, "vote-1")
+                .bodyValue(Map.of("inFavor", true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(IdempotencyFilter.REPLAYED_HEADER)
+                .expectBody().returnResult().getResponseBody();
+
+        // El reintento recibe la respuesta guardada sin volver a votar
+        webTestClient.post().uri("/api/proposals/{id}/vote", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, citizen)
+                .header(IdempotencyFilter.HEADER, "vote-1")
+                .bodyValue(Map.of("inFavor", true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(IdempotencyFilter.REPLAYED_HEADER, "true")
+                .expectBody().consumeWith(result -> assertArrayEquals(first, result.getResponseBody()));
+
+        webTestClient.post().uri("/api/proposals/{id}/vote", "65a000000000000000000000")
+                .header(HttpHeaders.AUTHORIZATION, citizen)
+                .header(IdempotencyFilter.HEADER, "vote-1")
+                .bodyValue(Map.of("inFavor", true))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Idempotency-Key was already used for another request");
+
+        // Capacidad 5: los tres requests con clave y dos más; el sexto recibe 429 con Retry-After.
+        // El límite corre antes que la clave, así que el rechazado no la toma en MongoDB
+        for (int i = 0; i < 2; i++) {
+            webTestClient.post().uri("/api/proposals/{id}/vote", proposalId)
+                    .header(HttpHeaders.AUTHORIZATION, citizen)
+                    .bodyValue(Map.of("inFavor", i % 2 == 0))
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+        webTestClient.post().uri("/api/proposals/{id}/vote", proposalId)
+                .header(HttpHeaders.AUTHORIZATION, citizen)
+                .header(IdempotencyFilter.HEADER, "vote-2")
+                .bodyValue(Map.of("inFavor", true))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(429);
+        assertFalse(mongoTemplate.exists(Query.query(Criteria.where("key").is("vote-2")), IdempotencyRecord.class));
+    }
+}
@@ -0,0 +1,85 @@
+package platform.service;
+
+import entities.domain.Tally;
+import entities.domain.Vote;
+import exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import platform.cache.ProposalCacheProperties;
+import platform.cache.ProposalReadCache;
+import platform.ingestion.TallyRecounter;
+import platform.live.TallyBroadcaster;
+import platform.repository.ProposalRepositoryCustom.VoteTarget;
+import platform.repository.ReactiveProposalRepository;
+import platform.repository.ReactiveVoteRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveProposalServiceTest {
+
+    private ReactiveProposalRepository proposalRepository;
+    private ReactiveVoteRepository voteRepository;
+    private TallyRecounter tallyRecounter;
+    private ReactiveProposalService proposalService;
+
+    @BeforeEach
+    void setup() {
+        proposalRepository = mock(ReactiveProposalRepository.class);
+        voteRepository = mock(ReactiveVoteRepository.class);
+        tallyRecounter = mock(TallyRecounter.class);
+        proposalService = new ReactiveProposalService(proposalRepository, voteRepository, Optional.empty(),
+                new ProposalReadCache(new ProposalCacheProperties(), new SimpleMeterRegistry()),
+                mock(TallyBroadcaster.class), tallyRecounter);
+    }
+
+    @Test
+    void testVoteOnProposalDeletedAfterCheckRemovesTheVote() {
+        Vote vote = buildVote();
+        when(proposalRepository.findVoteTarget("1")).thenReturn(Mono.just(new VoteTarget(true, 0)));
+        when(voteRepository.upsert(vote)).thenReturn(Mono.empty());
+        when(proposalRepository.incrementTally("1", 0, 1, 0)).thenReturn(Mono.empty());
+        when(voteRepository.deleteByProposalId("1")).thenReturn(Mono.empty());
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> vote("1", vote));
+        assertEquals("Proposal not found", exception.getMessage());
+        verify(voteRepository).deleteByProposalId("1");
+    }
+
+    @Test
+    void testTallyIsRecountedWhenTheIncrementFails() {
+        Vote vote = buildVote();
+        when(proposalRepository.findVoteTarget("1")).thenReturn(Mono.just(new VoteTarget(true, 0)));
+        when(voteRepository.upsert(vote)).thenReturn(Mono.empty());
+        when(proposalRepository.incrementTally("1", 0, 1, 0))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> vote("1", vote));
+        verify(tallyRecounter).schedule("1");
+        verify(voteRepository, never()).deleteByProposalId("1");
+    }
+
+    private Tally vote(String proposalId, Vote vote) {
+        return proposalService.vote(proposalId, vote)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken("123456", "password", List.of())))
+                .block();
+    }
+
+    private Vote buildVote() {
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+        return vote;
+    }
+}
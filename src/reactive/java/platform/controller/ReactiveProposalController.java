@@ -0,0 +1,63 @@
+package platform.controller;
+
+import entities.domain.CursorPage;
+import entities.domain.Proposal;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import platform.ratelimit.RateLimited;
+import platform.service.ReactiveProposalService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// Mismas rutas que ProposalController para navegación, votos y conteos, servidas por WebFlux con el perfil "reactive"
+@RestController
+@RequestMapping("/api/proposals")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProposalController {
+
+    private final ReactiveProposalService service;
+
+    public ReactiveProposalController(ReactiveProposalService service) {
+        this.service = service;
+    }
+
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping
+    public Flux<Proposal> getAll() {
+        return service.getAll();
+    }
+
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping("/page")
+    public Mono<CursorPage<ProposalSummary>> list(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate limitDateFrom,
+                                                  @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate limitDateTo,
+                                                  @RequestParam(required = false) String authorDocument,
+                                                  @RequestParam(defaultValue = "20") int size) {
+        return service.list(cursor, limitDateFrom, limitDateTo, authorDocument, size);
+    }
+
+    @PreAuthorize("hasAuthority('Mayor')")
+    @GetMapping("/{proposalId}/tally")
+    public Mono<Tally> getTally(@PathVariable String proposalId) {
+        return service.getTally(proposalId);
+    }
+
+    @PreAuthorize("hasAuthority('Citizen')")
+    @RateLimited("vote")
+    @PostMapping("/{proposalId}/vote")
+    public Mono<ResponseEntity<Tally>> vote(@PathVariable String proposalId, @RequestBody Vote vote) {
+        // Con la escritura diferida el voto queda aceptado pero el conteo todavía no lo incluye
+        return service.vote(proposalId, vote)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.accepted().build());
+    }
+}
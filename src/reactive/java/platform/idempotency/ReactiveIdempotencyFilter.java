@@ -0,0 +1,212 @@
+package platform.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import platform.idempotency.IdempotencyStore.Entry;
+import platform.idempotency.IdempotencyStore.Key;
+import platform.idempotency.IdempotencyStore.StoredResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Equivalente WebFlux de IdempotencyFilter, con el mismo almacén de claves y la misma huella (método, ruta y cuerpo).
+// Corre después de la cadena de seguridad y del límite de requests: un request rechazado con 429 no llega a
+// tomar la clave en MongoDB. Los duplicados esperan la respuesta del original sin bloquear el event loop.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveIdempotencyFilter implements WebFilter {
+
+    private final boolean enabled;
+    private final Duration waitTimeout;
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveIdempotencyFilter(IdempotencyProperties properties, IdempotencyStore store, ObjectMapper objectMapper) {
+        this.enabled = properties.isEnabled();
+        this.waitTimeout = properties.getWaitTimeout();
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String idempotencyKey = request.getHeaders().getFirst(IdempotencyFilter.HEADER);
+        if (!enabled
+                || idempotencyKey == null
+                || !IdempotencyFilter.METHODS.contains(request.getMethod().name())
+                || !request.getPath().value().startsWith(IdempotencyFilter.PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        // Sin usuario no hay a quién asociar la clave; Spring Security ya rechaza el request
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication.isEmpty()
+                        ? chain.filter(exchange)
+                        : filter(exchange, chain, authentication.get().getName(), idempotencyKey));
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain, String user, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyFilter.MAX_KEY_LENGTH) {
+            return writeError(exchange, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must have between 1 and " + IdempotencyFilter.MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(user, idempotencyKey);
+        ServerHttpRequest request = exchange.getRequest();
+        // El cuerpo se lee antes del controller para incluirlo en la huella; el controller lee la copia
+        return DataBufferUtils.join(request.getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    ServerHttpRequest cached = new ServerHttpRequestDecorator(request) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+                        }
+                    };
+                    String fingerprint = IdempotencyStore.fingerprint(request.getMethod().name(), request.getPath().value(), body);
+                    return attempt(exchange.mutate().request(cached).build(), chain, key, fingerprint);
+                });
+    }
+
+    // Tomar la clave consulta MongoDB, así que corre fuera del event loop
+    private Mono<Void> attempt(ServerWebExchange exchange, WebFilterChain chain, Key key, String fingerprint) {
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        return Mono.fromCallable(() -> Optional.ofNullable(store.claim(key, mine)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(claimed -> claimed.isEmpty()
+                        ? execute(exchange, chain, key, mine)
+                        : awaitOriginal(exchange, chain, key, fingerprint, claimed.get()));
+    }
+
+    private Mono<Void> awaitOriginal(ServerWebExchange exchange, WebFilterChain chain, Key key, String fingerprint, Entry existing) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            return writeError(exchange, HttpStatus.BAD_REQUEST, "Idempotency-Key was already used for another request");
+        }
+        // suppressCancel: el timeout de este duplicado no debe cancelar la respuesta que esperan los demás
+        return Mono.fromFuture(existing.response(), true)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .timeout(waitTimeout, Mono.defer(() -> writeError(exchange, HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key is still in progress").then(Mono.empty())))
+                // Si el original falló ya liberó la clave: este request la vuelve a intentar tomar
+                .flatMap(cached -> cached.isPresent()
+                        ? replay(exchange, cached.get())
+                        : attempt(exchange, chain, key, fingerprint));
+    }
+
+    // La respuesta se guarda antes de enviarla: un reintento que llega después de recibirla siempre la encuentra
+    private Mono<Void> execute(ServerWebExchange exchange, WebFilterChain chain, Key key, Entry entry) {
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> content) {
+                return DataBufferUtils.join(content)
+                        .map(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            return bytes;
+                        })
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> record(getDelegate(), key, entry, bytes)
+                                .then(super.writeWith(Mono.just(bufferFactory().wrap(bytes)))));
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> content) {
+                return writeWith(Flux.from(content).concatMap(Flux::from));
+            }
+
+            @Override
+            public Mono<Void> setComplete() {
+                return record(getDelegate(), key, entry, new byte[0]).then(super.setComplete());
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build())
+                .onErrorResume(e -> Mono.fromRunnable(() -> store.complete(key, entry, null))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.error(e)))
+                .doOnCancel(() -> Schedulers.boundedElastic().schedule(() -> store.complete(key, entry, null)))
+                // Si el handler no escribió nada, HttpWebHandlerAdapter completa la respuesta sin pasar por el decorador
+                .then(Mono.defer(() -> entry.response().isDone()
+                        ? Mono.empty()
+                        : record(exchange.getResponse(), key, entry, new byte[0])));
+    }
+
+    // Guardar la respuesta escribe en MongoDB, así que corre fuera del event loop
+    private Mono<Void> record(ServerHttpResponse response, Key key, Entry entry, byte[] body) {
+        return Mono.fromRunnable(() -> {
+            HttpStatusCode status = response.getStatusCode();
+            int value = status != null ? status.value() : HttpStatus.OK.value();
+            MediaType contentType = response.getHeaders().getContentType();
+            store.complete(key, entry, IdempotencyStore.isSuccess(value)
+                    ? new StoredResponse(value, contentType != null ? contentType.toString() : null,
+                    response.getHeaders().getETag(), body)
+                    : null);
+        }).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, StoredResponse cached) {
+        store.replayed();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        HttpHeaders headers = response.getHeaders();
+        if (cached.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        if (cached.etag() != null) {
+            headers.setETag(cached.etag());
+        }
+        headers.set(IdempotencyFilter.REPLAYED_HEADER, "true");
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    // Mismo formato que GlobalExceptionHandler, que no alcanza a los filtros
+    private Mono<Void> writeError(ServerWebExchange exchange, HttpStatus status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", message);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(body))));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package platform.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Equivalente WebFlux de RateLimitFilter, con el mismo RateLimiter y la misma anotación @RateLimited.
+// Corre después de la cadena de seguridad, así que el usuario del JWT ya está en el contexto de Reactor, y antes
+// de ReactiveIdempotencyFilter, así que un request rechazado no toma su Idempotency-Key en MongoDB.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveRateLimitFilter(RateLimiter rateLimiter,
+                                   @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                                   ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.handlerMapping = handlerMapping;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return handlerMapping.getHandler(exchange)
+                // Un request sin handler (404, 405) sigue de largo: DispatcherHandler arma ese error
+                .onErrorResume(e -> Mono.empty())
+                .ofType(HandlerMethod.class)
+                .mapNotNull(method -> method.getMethodAnnotation(RateLimited.class))
+                .flatMap(limited -> ReactiveSecurityContextHolder.getContext()
+                        .map(SecurityContext::getAuthentication)
+                        .filter(Authentication::isAuthenticated)
+                        // El bucket es un compareAndSet en memoria: no bloquea el event loop
+                        .doOnNext(authentication -> rateLimiter.acquire(limited.value(), authentication.getName())))
+                .then(Mono.<Boolean>empty())
+                .onErrorResume(TooManyRequestsException.class, e -> tooManyRequests(exchange, e).thenReturn(true))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(true)))
+                .then();
+    }
+
+    // Mismo formato y Retry-After que GlobalExceptionHandler, que no alcanza a los filtros
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, TooManyRequestsException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", e.getMessage());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(body))));
+        } catch (JsonProcessingException ex) {
+            return Mono.error(ex);
+        }
+    }
+}
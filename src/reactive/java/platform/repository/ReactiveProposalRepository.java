@@ -0,0 +1,7 @@
+package platform.repository;
+
+import entities.domain.Proposal;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveProposalRepository extends ReactiveMongoRepository<Proposal, String>, ReactiveProposalRepositoryCustom {
+}
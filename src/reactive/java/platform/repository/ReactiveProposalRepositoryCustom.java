@@ -0,0 +1,21 @@
+package platform.repository;
+
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReactiveProposalRepositoryCustom {
+
+    // Mismas operaciones atómicas que ProposalRepositoryCustom; vacío si la propuesta no existe
+    Mono<Tally> incrementTally(String proposalId, long tallyEpoch, long inFavorDelta, long againstDelta);
+
+    Mono<Tally> findTally(String proposalId);
+
+    Mono<ProposalRepositoryCustom.VoteTarget> findVoteTarget(String proposalId);
+
+    Flux<ProposalSummary> findSummaries(String afterId, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                        String authorDocument, int limit);
+}
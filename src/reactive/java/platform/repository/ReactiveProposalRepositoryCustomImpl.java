@@ -0,0 +1,75 @@
+package platform.repository;
+
+import entities.domain.Proposal;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import platform.repository.ProposalRepositoryCustom.VoteTarget;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static platform.repository.ProposalQueries.openQuery;
+import static platform.repository.ProposalQueries.summaries;
+import static platform.repository.ProposalQueries.tallyEpoch;
+import static platform.repository.ProposalQueries.tallyIncrement;
+import static platform.repository.ProposalQueries.tallyQuery;
+
+public class ReactiveProposalRepositoryCustomImpl implements ReactiveProposalRepositoryCustom {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProposalRepositoryCustomImpl.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveProposalRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Tally> incrementTally(String proposalId, long tallyEpoch, long inFavorDelta, long againstDelta) {
+        // Igual que en la pila servlet, el voto también sube el contador de cambios de la colección
+        return mongoTemplate.findAndModify(tallyQuery(proposalId).addCriteria(tallyEpoch(tallyEpoch)),
+                        tallyIncrement(inFavorDelta, againstDelta), FindAndModifyOptions.options().returnNew(true), Proposal.class)
+                .flatMap(proposal -> mongoTemplate.upsert(ProposalChangeCounter.counterQuery(),
+                                ProposalChangeCounter.incrementUpdate(), ProposalChangeCounter.COLLECTION)
+                        // Como en ProposalChangeCounter: el voto ya quedó escrito, así que en vez de fallar se rota epoch
+                        .onErrorResume(e -> {
+                            log.warn("Could not bump the proposal change counter, rotating its epoch", e);
+                            return mongoTemplate.upsert(ProposalChangeCounter.counterQuery(),
+                                            ProposalChangeCounter.rotateUpdate(), ProposalChangeCounter.COLLECTION)
+                                    .doOnError(rotation -> log.warn("Could not rotate the proposal change counter epoch", rotation))
+                                    .onErrorResume(rotation -> Mono.empty());
+                        })
+                        .thenReturn(proposal))
+                .map(ProposalQueries::toTally)
+                .switchIfEmpty(Mono.defer(() -> mongoTemplate.exists(Query.query(where("id").is(proposalId)), Proposal.class)
+                        .flatMap(exists -> exists
+                                ? Mono.error(new OptimisticLockingFailureException("Tally of proposal " + proposalId + " was recounted"))
+                                : Mono.empty())));
+    }
+
+    @Override
+    public Mono<Tally> findTally(String proposalId) {
+        return mongoTemplate.findOne(tallyQuery(proposalId), Proposal.class).map(ProposalQueries::toTally);
+    }
+
+    @Override
+    public Mono<VoteTarget> findVoteTarget(String proposalId) {
+        return mongoTemplate.findOne(openQuery(proposalId), Proposal.class)
+                .map(proposal -> new VoteTarget(ProposalQueries.isOpen(proposal, LocalDate.now()), proposal.getTallyEpoch()));
+    }
+
+    @Override
+    public Flux<ProposalSummary> findSummaries(String afterId, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                               String authorDocument, int limit) {
+        return mongoTemplate.aggregate(summaries(afterId, limitDateFrom, limitDateTo, authorDocument, limit),
+                ProposalSummary.class);
+    }
+}
@@ -0,0 +1,10 @@
+package platform.repository;
+
+import entities.domain.Vote;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveVoteRepository extends ReactiveMongoRepository<Vote, String>, ReactiveVoteRepositoryCustom {
+
+    Mono<Void> deleteByProposalId(String proposalId);
+}
@@ -0,0 +1,10 @@
+package platform.repository;
+
+import entities.domain.Vote;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveVoteRepositoryCustom {
+
+    // Inserta o reemplaza el voto del ciudadano; emite el voto anterior o termina vacío si es el primero
+    Mono<Vote> upsert(Vote vote);
+}
@@ -0,0 +1,33 @@
+package platform.repository;
+
+import entities.domain.Vote;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class ReactiveVoteRepositoryCustomImpl implements ReactiveVoteRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveVoteRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Vote> upsert(Vote vote) {
+        Query query = Query.query(where("proposalId").is(vote.getProposalId())
+                .and("userDocument").is(vote.getUserDocument()));
+        Update update = new Update().set("inFavor", vote.isInFavor());
+
+        return mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().upsert(true).returnNew(false), Vote.class)
+                // Otro request del mismo ciudadano insertó el voto primero; el índice único ya lo contiene
+                .onErrorResume(DuplicateKeyException.class, e -> mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().returnNew(false), Vote.class));
+    }
+}
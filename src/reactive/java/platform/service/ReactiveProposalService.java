@@ -0,0 +1,118 @@
+package platform.service;
+
+import entities.domain.CursorPage;
+import entities.domain.Proposal;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import exception.BadRequestException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import platform.cache.ProposalReadCache;
+import platform.ingestion.TallyRecounter;
+import platform.ingestion.WriteBehindVoteBuffer;
+import platform.live.TallyBroadcaster;
+import platform.repository.ReactiveProposalRepository;
+import platform.repository.ReactiveVoteRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+// Variante no bloqueante de la navegación, el voto y el conteo de ProposalService, con las mismas reglas
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProposalService {
+
+    private final ReactiveProposalRepository repository;
+    private final ReactiveVoteRepository voteRepository;
+    private final Optional<WriteBehindVoteBuffer> voteBuffer;
+    private final ProposalReadCache cache;
+    private final TallyBroadcaster broadcaster;
+    private final TallyRecounter recounter;
+
+    public ReactiveProposalService(ReactiveProposalRepository repository, ReactiveVoteRepository voteRepository,
+                                   Optional<WriteBehindVoteBuffer> voteBuffer, ProposalReadCache cache,
+                                   TallyBroadcaster broadcaster, TallyRecounter recounter) {
+        this.repository = repository;
+        this.voteRepository = voteRepository;
+        this.voteBuffer = voteBuffer;
+        this.cache = cache;
+        this.broadcaster = broadcaster;
+        this.recounter = recounter;
+    }
+
+    public Flux<Proposal> getAll() {
+        return repository.findAll();
+    }
+
+    public Mono<CursorPage<ProposalSummary>> list(String cursor, LocalDate limitDateFrom, LocalDate limitDateTo,
+                                                  String authorDocument, int size) {
+        return Mono.fromRunnable(() -> ProposalService.validateSummaryPage(cursor, size))
+                .thenMany(repository.findSummaries(cursor, limitDateFrom, limitDateTo, authorDocument, size + 1))
+                .collectList()
+                .map(items -> ProposalService.toSummaryPage(items, size));
+    }
+
+    // Termina vacío cuando el voto quedó en el buffer de escritura diferida y aún no se refleja en el conteo
+    public Mono<Tally> vote(String proposalId, Vote vote) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> context.getAuthentication().getName())
+                .flatMap(userDocument -> {
+                    vote.setId(null);
+                    vote.setProposalId(proposalId);
+                    vote.setUserDocument(userDocument);
+
+                    if (voteBuffer.isPresent()) {
+                        // accept escribe en el journal local con fsync, por eso no corre en el event loop
+                        return Mono.fromRunnable(() -> voteBuffer.get().accept(vote))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.<Tally>empty());
+                    }
+
+                    // La época se lee antes de escribir el voto, igual que en ProposalService
+                    return repository.findVoteTarget(proposalId)
+                            .switchIfEmpty(Mono.error(new BadRequestException("Proposal not found")))
+                            .flatMap(target -> target.open()
+                                    ? voteRepository.upsert(vote).map(Optional::of).defaultIfEmpty(Optional.empty())
+                                            .flatMap(previous -> tally(proposalId, target.tallyEpoch(), previous.orElse(null), vote))
+                                    : Mono.error(new BadRequestException("Proposal is closed")));
+                });
+    }
+
+    // Mismo manejo que ProposalService.vote una vez escrito el voto
+    private Mono<Tally> tally(String proposalId, long tallyEpoch, Vote previous, Vote vote) {
+        Tally delta = ProposalService.voteDelta(previous, vote);
+        Mono<Tally> tally = delta == null
+                ? repository.findTally(proposalId)
+                : repository.incrementTally(proposalId, tallyEpoch, delta.getInFavor(), delta.getAgainst())
+                        .onErrorResume(e -> {
+                            // El voto ya quedó escrito y no se sabe si el $inc llegó a aplicarse (o si un recálculo
+                            // corrió entre el voto y el $inc): el conteo se recalcula después
+                            recounter.schedule(proposalId);
+                            return e instanceof OptimisticLockingFailureException
+                                    ? repository.findTally(proposalId)
+                                    : Mono.error(e);
+                        });
+        return tally
+                // La propuesta se borró entre la lectura de la época y el upsert; el borrado pudo no ver este voto
+                .switchIfEmpty(Mono.defer(() -> voteRepository.deleteByProposalId(proposalId)
+                        .then(Mono.error(new BadRequestException("Proposal not found")))))
+                .doOnNext(current -> {
+                    if (delta != null) {
+                        // Igual que ProposalService: el conteo cacheado y los suscriptores en vivo ven el voto
+                        cache.votesChanged(proposalId);
+                        broadcaster.tallyChanged(proposalId);
+                    }
+                });
+    }
+
+    public Mono<Tally> getTally(String proposalId) {
+        return repository.findTally(proposalId)
+                .switchIfEmpty(Mono.error(new BadRequestException("Proposal not found")));
+    }
+}
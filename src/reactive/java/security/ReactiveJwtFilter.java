@@ -0,0 +1,33 @@
+package security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+// Equivalente reactivo de JwtFilter: misma verificación (y caché) de JwtService, el resultado viaja en el contexto de Reactor
+public class ReactiveJwtFilter implements WebFilter {
+
+    private final JwtService jwtService;
+
+    public ReactiveJwtFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (bearerToken == null || !bearerToken.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        Authentication authentication = jwtService.authenticate(bearerToken.substring(7));
+        if (authentication == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+}
@@ -0,0 +1,46 @@
+package security;
+
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+
+// Seguridad de la pila WebFlux (perfil "reactive"): mismas URIs públicas y mismos tokens que SecurityConfig
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain reactiveSecurityFilterChain(ServerHttpSecurity http, JwtService jwtService,
+                                                              SecurityProperties securityProperties, Environment environment) {
+        ServerWebExchangeMatcher actuator = SecurityConfig.actuatorOnInternalPort(environment)
+                ? EndpointRequest.toAnyEndpoint() : exchange -> ServerWebExchangeMatcher.MatchResult.notMatch();
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                // Sin sesión: la autenticación sale del token en cada request
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers(securityProperties.getPublicUris().toArray(new String[0])).permitAll()
+                        .matchers(actuator).permitAll()
+                        .anyExchange().authenticated())
+                .addFilterAt(new ReactiveJwtFilter(jwtService), SecurityWebFiltersOrder.AUTHENTICATION)
+                // Igual que la pila servlet, un request sin token válido recibe 403
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .build();
+    }
+}
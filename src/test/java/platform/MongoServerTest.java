@@ -0,0 +1,19 @@
+package platform;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+// Levanta un servidor MongoDB en memoria para las pruebas que necesitan ejecutar las operaciones reales
+public abstract class MongoServerTest {
+
+    private static final MongoServer SERVER = new MongoServer(new MemoryBackend());
+    private static final String CONNECTION_STRING = SERVER.bindAndGetConnectionString();
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> CONNECTION_STRING + "/citizen-test");
+        registry.add("platform.mongo.ensure-indexes", () -> true);
+    }
+}
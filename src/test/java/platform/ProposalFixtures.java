@@ -0,0 +1,24 @@
+package platform;
+
+import entities.domain.Proposal;
+
+import java.time.LocalDate;
+
+// Propuesta de ejemplo compartida por las pruebas; cada una completa lo que necesita (id, comentarios, etc.)
+public final class ProposalFixtures {
+
+    public static final String TITLE = "Crear ciclovía en el barrio Centro";
+    public static final String DESCRIPTION = "Crear una ciclovía en el barrio Centro para fomentar el uso de la bicicleta y reducir el tráfico.";
+
+    private ProposalFixtures() {
+    }
+
+    public static Proposal proposal(String authorDocument, LocalDate limitDate) {
+        Proposal proposal = new Proposal();
+        proposal.setTitle(TITLE);
+        proposal.setDescription(DESCRIPTION);
+        proposal.setAuthorDocument(authorDocument);
+        proposal.setLimitDate(limitDate);
+        return proposal;
+    }
+}
@@ -0,0 +1,138 @@
+package platform.cache;
+
+import entities.domain.CursorPage;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.cache.ProposalReadCache.PageKey;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProposalReadCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProposalReadCache cache;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProposalReadCache(new ProposalCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    void testTallyIsServedFromCacheUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0));
+        Tally cached = cache.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0));
+        assertEquals(1, cached.getInFavor());
+
+        cache.invalidate("p2");
+        assertEquals(1, cache.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0)).getInFavor());
+
+        cache.invalidate("p1");
+        assertEquals(2, cache.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0)).getInFavor());
+
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "proposals.tally").tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "proposals.tally").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testPagesAreInvalidatedOnlyWhenTheyContainTheProposal() {
+        PageKey first = new PageKey(null, null, null, null, 2);
+        PageKey second = new PageKey("p2", null, null, null, 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.page(first, () -> { loads.incrementAndGet(); return page("p4", "p3"); });
+        cache.page(second, () -> { loads.incrementAndGet(); return page("p2", "p1"); });
+
+        cache.invalidate("p1");
+        cache.page(first, () -> { loads.incrementAndGet(); return page("p4", "p3"); });
+        assertEquals(2, loads.get());
+        cache.page(second, () -> { loads.incrementAndGet(); return page("p2", "p1"); });
+        assertEquals(3, loads.get());
+
+        // Una propuesta nueva solo afecta a las primeras páginas
+        cache.proposalCreated();
+        cache.page(second, () -> { loads.incrementAndGet(); return page("p2", "p1"); });
+        assertEquals(3, loads.get());
+        cache.page(first, () -> { loads.incrementAndGet(); return page("p5", "p4"); });
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testVotesInvalidatePagesOncePerInterval() throws Exception {
+        ProposalCacheProperties properties = new ProposalCacheProperties();
+        properties.setPageVoteRefresh(Duration.ofMillis(200));
+        ProposalReadCache coalescing = new ProposalReadCache(properties, new SimpleMeterRegistry());
+        PageKey first = new PageKey(null, null, null, null, 2);
+        AtomicInteger pageLoads = new AtomicInteger();
+        AtomicInteger tallyLoads = new AtomicInteger();
+
+        coalescing.page(first, () -> { pageLoads.incrementAndGet(); return page("p2", "p1"); });
+        coalescing.tally("p1", () -> new Tally("p1", tallyLoads.incrementAndGet(), 0));
+
+        // El primer voto tras un rato sin votos invalida la página enseguida; el tally se invalida con cada voto
+        Thread.sleep(250);
+        coalescing.votesChanged("p1");
+        coalescing.votesChanged("p1");
+        coalescing.votesChanged("p1");
+        assertEquals(2, coalescing.tally("p1", () -> new Tally("p1", tallyLoads.incrementAndGet(), 0)).getInFavor());
+        coalescing.page(first, () -> { pageLoads.incrementAndGet(); return page("p2", "p1"); });
+        assertEquals(2, pageLoads.get());
+
+        // Los votos siguientes dentro del intervalo no vuelven a vaciar la página
+        coalescing.votesChanged("p1");
+        coalescing.page(first, () -> { pageLoads.incrementAndGet(); return page("p2", "p1"); });
+        assertEquals(2, pageLoads.get());
+
+        // Pasado el intervalo, los votos acumulados invalidan la página una sola vez
+        Thread.sleep(250);
+        coalescing.page(first, () -> { pageLoads.incrementAndGet(); return page("p2", "p1"); });
+        coalescing.page(first, () -> { pageLoads.incrementAndGet(); return page("p2", "p1"); });
+        assertEquals(3, pageLoads.get());
+    }
+
+    @Test
+    void testLoadRacingWithWriteIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.tally("p1", () -> {
+            // Una escritura invalida mientras esta lectura todavía estaba en MongoDB
+            cache.invalidate("p1");
+            return new Tally("p1", loads.incrementAndGet(), 0);
+        });
+
+        assertEquals(2, cache.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0)).getInFavor());
+    }
+
+    @Test
+    void testOnlyConfiguredPathsAreCached() {
+        ProposalCacheProperties properties = new ProposalCacheProperties();
+        properties.setPaths(EnumSet.of(ProposalCacheProperties.ReadPath.PAGE));
+        ProposalReadCache pagesOnly = new ProposalReadCache(properties, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        pagesOnly.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0));
+        pagesOnly.tally("p1", () -> new Tally("p1", loads.incrementAndGet(), 0));
+
+        assertEquals(2, loads.get());
+    }
+
+    private CursorPage<ProposalSummary> page(String... ids) {
+        List<ProposalSummary> items = Arrays.stream(ids).map(id -> {
+            ProposalSummary summary = new ProposalSummary();
+            summary.setId(id);
+            return summary;
+        }).toList();
+        return new CursorPage<>(items, null);
+    }
+}
@@ -0,0 +1,46 @@
+package platform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import platform.MongoServerTest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability
+public class ManagementPortTest extends MongoServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void testActuatorIsOpenOnlyOnTheManagementPort() throws Exception {
+        // El scraper no manda token: en el puerto interno no hace falta
+        HttpResponse<String> internal = get(managementPort, "/actuator/prometheus");
+        assertEquals(200, internal.statusCode());
+        assertTrue(internal.body().contains("proposals_document_size_bytes_count"));
+        assertEquals(200, get(managementPort, "/actuator/health").statusCode());
+
+        // El puerto público no sirve actuator sin autenticar
+        assertEquals(403, get(serverPort, "/actuator/prometheus").statusCode());
+        assertEquals(403, get(serverPort, "/actuator/health").statusCode());
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,63 @@
+package platform.config;
+
+import entities.user.User;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import platform.MongoServerTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class MongoIndexInitializerTest extends MongoServerTest {
+
+    @Autowired
+    private MongoIndexInitializer indexInitializer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void testReportsMissingAndUndeclaredIndexes() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.createCollection(User.class);
+        mongoTemplate.getCollection("users").createIndex(new Document("name", 1));
+
+        MongoIndexInitializer.IndexDrift drift = usersDrift(indexInitializer.ensureIndexes());
+        assertEquals(List.of("{\"document\": 1} unique", "{\"email\": 1} unique"), drift.created());
+        assertEquals(1, drift.undeclared().size());
+        assertTrue(drift.undeclared().getFirst().startsWith("name_1"));
+
+        // Una segunda pasada no crea nada: el índice de login por email ya existe
+        drift = usersDrift(indexInitializer.ensureIndexes());
+        assertTrue(drift.created().isEmpty());
+        assertTrue(drift.conflicting().isEmpty());
+
+        mongoTemplate.getCollection("users").dropIndex("name_1");
+    }
+
+    @Test
+    void testKeyOrderAndNumericTypesWhenComparingIndexes() {
+        assertTrue(MongoIndexInitializer.sameKeys(new Document("authorDocument", 1.0).append("_id", -1L),
+                new Document("authorDocument", 1).append("_id", -1)));
+        assertFalse(MongoIndexInitializer.sameKeys(new Document("_id", -1).append("authorDocument", 1),
+                new Document("authorDocument", 1).append("_id", -1)));
+    }
+
+    @Test
+    void testTextIndexIsMatchedByItsFields() {
+        Document declared = new Document("title", "text").append("description", "text");
+        Document stored = new Document("key", new Document("_fts", "text").append("_ftsx", 1))
+                .append("weights", new Document("title", 3).append("description", 1));
+        assertTrue(MongoIndexInitializer.sameTextFields(stored, declared));
+        assertFalse(MongoIndexInitializer.sameTextFields(stored, new Document("title", "text")));
+    }
+
+    private static MongoIndexInitializer.IndexDrift usersDrift(List<MongoIndexInitializer.IndexDrift> report) {
+        return report.stream().filter(drift -> drift.collection().equals("users")).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,39 @@
+package platform.config;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryExplainerTest {
+
+    @Test
+    void testQueriesWithDifferentValuesShareShape() {
+        BsonDocument first = SlowQueryExplainer.query(BsonDocument.parse(
+                "{find: 'users', filter: {email: 'a@mail.com'}, limit: 2, $db: 'citizen', lsid: {id: 1}}"));
+        BsonDocument second = SlowQueryExplainer.query(BsonDocument.parse(
+                "{find: 'users', filter: {email: 'b@mail.com'}, limit: 2, $db: 'citizen', lsid: {id: 2}}"));
+        BsonDocument other = SlowQueryExplainer.query(BsonDocument.parse(
+                "{find: 'users', filter: {document: '41162211'}, limit: 2, $db: 'citizen'}"));
+
+        assertFalse(first.containsKey("$db"));
+        assertFalse(first.containsKey("lsid"));
+        assertEquals(SlowQueryExplainer.shape(first), SlowQueryExplainer.shape(second));
+        assertNotEquals(SlowQueryExplainer.shape(first), SlowQueryExplainer.shape(other));
+    }
+
+    @Test
+    void testDetectsCollectionScanInWinningPlanOnly() {
+        BsonDocument collectionScan = BsonDocument.parse(
+                "{queryPlanner: {winningPlan: {stage: 'LIMIT', inputStage: {stage: 'COLLSCAN'}}}}");
+        BsonDocument indexScan = BsonDocument.parse(
+                "{queryPlanner: {winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'email_unique'}},"
+                        + " rejectedPlans: [{stage: 'COLLSCAN'}]}}");
+        BsonDocument aggregate = BsonDocument.parse(
+                "{stages: [{$cursor: {queryPlanner: {winningPlan: {stage: 'COLLSCAN'}}}}, {$group: {}}]}");
+
+        assertTrue(SlowQueryExplainer.usesCollectionScan(collectionScan));
+        assertFalse(SlowQueryExplainer.usesCollectionScan(indexScan));
+        assertTrue(SlowQueryExplainer.usesCollectionScan(aggregate));
+    }
+}
@@ -0,0 +1,127 @@
+package platform.controller;
+
+import entities.domain.Proposal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import platform.MongoServerTest;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class ProposalControllerTest extends MongoServerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String proposalId;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Nueva plaza");
+        proposal.setDescription("Plaza en el barrio");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.now().plusDays(10));
+        proposalId = proposalRepository.save(proposal).getId();
+    }
+
+    @Test
+    void testConditionalGetAndIfMatchOnSingleProposal() throws Exception {
+        String citizen = "Bearer " + jwtService.generateToken("49359161", "Citizen");
+
+        mockMvc.perform(get("/api/proposals/{id}", proposalId).header(HttpHeaders.AUTHORIZATION, citizen))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.version").value(0));
+
+        mockMvc.perform(get("/api/proposals/{id}", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/proposals/{id}/comment", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Buena idea\"}"))
+                .andExpect(status().isOk());
+
+        // El comentario aumentó la versión: el ETag anterior ya no sirve ni para leer ni para escribir
+        mockMvc.perform(post("/api/proposals/{id}/comment", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Otra idea\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/proposals/{id}", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.comments.length()").value(1));
+    }
+
+    @Test
+    void testConditionalGetOnListings() throws Exception {
+        String mayor = "Bearer " + jwtService.generateToken("41162211", "Mayor");
+
+        for (String uri : new String[]{"/api/proposals", "/api/proposals/page"}) {
+            String etag = mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, mayor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, mayor).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+        }
+    }
+
+    @Test
+    void testPrometheusEndpointExposesLatencyAndDocumentMetrics() throws Exception {
+        String citizen = "Bearer " + jwtService.generateToken("49359161", "Citizen");
+        mockMvc.perform(get("/api/proposals/{id}", proposalId).header(HttpHeaders.AUTHORIZATION, citizen))
+                .andExpect(status().isOk());
+
+        // En el puerto de la API actuator pide token como cualquier otra ruta
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, citizen))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/api/proposals/{id}\"")))
+                .andExpect(content().string(containsString("mongodb_driver_commands_seconds_bucket")))
+                .andExpect(content().string(containsString("mongodb_driver_pool_size")))
+                .andExpect(content().string(containsString("proposals_document_size_bytes_count")))
+                .andExpect(content().string(containsString("security_jwt_verification_seconds_count")));
+    }
+}
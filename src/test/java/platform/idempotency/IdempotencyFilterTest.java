@@ -0,0 +1,201 @@
+package platform.idempotency;
+
+import entities.domain.IdempotencyRecord;
+import entities.domain.Proposal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import platform.MongoServerTest;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Los reintentos y duplicados también consumen tokens del límite de comentarios
+@SpringBootTest(properties = "platform.rate-limit.endpoints.comment.capacity=1000")
+@AutoConfigureMockMvc
+public class IdempotencyFilterTest extends MongoServerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String proposalId;
+    private String citizen;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), IdempotencyRecord.class);
+
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Nueva plaza");
+        proposal.setDescription("Plaza en el barrio");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.now().plusDays(10));
+        proposalId = proposalRepository.save(proposal).getId();
+        citizen = "Bearer " + jwtService.generateToken("49359161", "Citizen");
+    }
+
+    private MockHttpServletRequestBuilder comment(String idempotencyKey, String description) {
+        return comment(citizen, idempotencyKey, description);
+    }
+
+    private MockHttpServletRequestBuilder comment(String user, String idempotencyKey, String description) {
+        return post("/api/proposals/{id}/comment", proposalId).header(HttpHeaders.AUTHORIZATION, user)
+                .header(IdempotencyFilter.HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"" + description + "\"}");
+    }
+
+    private int commentCount() {
+        List<?> comments = proposalRepository.findById(proposalId).orElseThrow().getComments();
+        return comments != null ? comments.size() : 0;
+    }
+
+    @Test
+    void testRetryWithSameKeyGetsTheStoredResponse() throws Exception {
+        String first = mockMvc.perform(comment("retry-1", "Buena idea"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+
+        String retry = mockMvc.perform(comment("retry-1", "Buena idea"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, retry);
+        assertEquals(1, commentCount());
+
+        // La clave es del usuario: otro ciudadano con la misma clave hace su propio comentario
+        String other = "Bearer " + jwtService.generateToken("38111222", "Citizen");
+        mockMvc.perform(comment(other, "retry-1", "Buena idea"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, commentCount());
+
+        // Reusar la clave en otro endpoint es un error del cliente
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(IdempotencyFilter.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":true}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testKeyIsBoundToTheRequestBody() throws Exception {
+        mockMvc.perform(comment("retry-4", "Buena idea"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(comment("retry-4", "Mala idea"))
+                .andExpect(status().isBadRequest());
+        assertEquals(1, commentCount());
+
+        // El registro compartido guarda la respuesta para los demás nodos
+        IdempotencyRecord stored = mongoTemplate.findOne(Query.query(Criteria.where("key").is("retry-4")), IdempotencyRecord.class);
+        assertNotNull(stored);
+        assertEquals(200, stored.getStatus());
+        assertEquals("49359161", stored.getUser());
+    }
+
+    @Test
+    void testKeyTakenByAnotherNodeIsReplayedWhenItCompletes() throws Exception {
+        // Otro nodo tomó la clave y sigue ejecutando el request
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUser("49359161");
+        record.setKey("retry-5");
+        record.setFingerprint(IdempotencyStore.fingerprint("POST", "/api/proposals/" + proposalId + "/comment",
+                "{\"description\":\"Buena idea\"}".getBytes(StandardCharsets.UTF_8)));
+        record.setExpiresAt(Instant.now().plusSeconds(60));
+        mongoTemplate.insert(record);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<MockHttpServletResponse> retry = executor.submit(() ->
+                    mockMvc.perform(comment("retry-5", "Buena idea")).andReturn().getResponse());
+            Thread.sleep(300);
+            assertFalse(retry.isDone());
+
+            mongoTemplate.updateFirst(Query.query(Criteria.where("key").is("retry-5")), new Update()
+                    .set("status", 200)
+                    .set("contentType", MediaType.APPLICATION_JSON_VALUE)
+                    .set("body", "{\"from\":\"other node\"}".getBytes(StandardCharsets.UTF_8)), IdempotencyRecord.class);
+
+            MockHttpServletResponse response = retry.get();
+            assertEquals(200, response.getStatus());
+            assertEquals("true", response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+            assertEquals("{\"from\":\"other node\"}", response.getContentAsString());
+        }
+        assertEquals(0, commentCount());
+    }
+
+    @Test
+    void testFailedRequestDoesNotKeepTheKey() throws Exception {
+        mockMvc.perform(comment("retry-2", "Buena idea").header(HttpHeaders.IF_MATCH, "\"7\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(comment("retry-2", "Buena idea"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, commentCount());
+    }
+
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        int clients = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(clients)) {
+            for (int i = 0; i < clients; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(comment("retry-3", "Buena idea")).andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+
+            String body = null;
+            int replayed = 0;
+            for (Future<MockHttpServletResponse> future : responses) {
+                MockHttpServletResponse response = future.get();
+                assertEquals(200, response.getStatus());
+                body = body == null ? response.getContentAsString() : body;
+                assertEquals(body, response.getContentAsString());
+                replayed += response.getHeader(IdempotencyFilter.REPLAYED_HEADER) != null ? 1 : 0;
+            }
+            assertEquals(clients - 1, replayed);
+        }
+        assertEquals(1, commentCount());
+    }
+}
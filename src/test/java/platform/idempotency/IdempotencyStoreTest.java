@@ -0,0 +1,52 @@
+package platform.idempotency;
+
+import entities.domain.IdempotencyRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import platform.idempotency.IdempotencyStore.Entry;
+import platform.idempotency.IdempotencyStore.Key;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyStoreTest {
+
+    private MongoTemplate mongoTemplate;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate = mock(MongoTemplate.class);
+        store = new IdempotencyStore(new IdempotencyProperties(), mongoTemplate, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stop() {
+        store.stop();
+    }
+
+    @Test
+    void testFailedInsertReleasesTheLocalEntry() {
+        Key key = new Key("49359161", "retry-1");
+        Entry first = new Entry("fingerprint", new CompletableFuture<>());
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("MongoDB is down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> store.claim(key, first));
+        // Los duplicados que ya esperaban esta entrada se ejecutan por su cuenta
+        assertTrue(first.response().isDone());
+        assertNull(first.response().join());
+
+        // El reintento toma la clave en vez de recibir 409 hasta que expire la entrada
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertNull(store.claim(key, new Entry("fingerprint", new CompletableFuture<>())));
+    }
+}
@@ -0,0 +1,256 @@
+package platform.ingestion;
+
+import entities.domain.Proposal;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import exception.BadRequestException;
+import exception.TooManyRequestsException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import platform.MongoServerTest;
+import platform.ProposalFixtures;
+import platform.cache.ProposalReadCache;
+import platform.live.TallyBroadcaster;
+import platform.repository.ProposalRepository;
+import platform.repository.VoteRepository;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+public class WriteBehindVoteBufferTest extends MongoServerTest {
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private ProposalReadCache proposalReadCache;
+
+    @Autowired
+    private TallyBroadcaster tallyBroadcaster;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private TallyRecounter tallyRecounter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    private Path journalDirectory;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), Vote.class);
+    }
+
+    @Test
+    void testFlushMergesRepeatedVotes() throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        WriteBehindVoteBuffer buffer = startBuffer(100);
+
+        buffer.accept(buildVote(proposalId, "1000001", true));
+        buffer.accept(buildVote(proposalId, "1000002", true));
+        buffer.accept(buildVote(proposalId, "1000001", false));
+        buffer.flush();
+
+        Tally tally = proposalRepository.findTally(proposalId);
+        assertEquals(1, tally.getInFavor());
+        assertEquals(1, tally.getAgainst());
+        assertEquals(2, voteRepository.count());
+
+        // Un cambio de voto en un lote posterior mueve el conteo igual que el voto directo
+        buffer.accept(buildVote(proposalId, "1000002", false));
+        buffer.flush();
+
+        tally = proposalRepository.findTally(proposalId);
+        assertEquals(0, tally.getInFavor());
+        assertEquals(2, tally.getAgainst());
+        buffer.stop();
+    }
+
+    @Test
+    void testConcurrentVotesShareTheJournalSync() throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        WriteBehindVoteBuffer buffer = startBuffer(1_000);
+
+        // Cada accept vuelve recién con su voto en disco, aunque el fsync lo haya hecho otro hilo del grupo
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                String userDocument = String.valueOf(2_000_000 + i);
+                executor.submit(() -> buffer.accept(buildVote(proposalId, userDocument, true)));
+            }
+        }
+        buffer.flush();
+
+        assertEquals(200, proposalRepository.findTally(proposalId).getInFavor());
+        assertEquals(200, voteRepository.count());
+        buffer.stop();
+    }
+
+    @Test
+    void testRejectsVotesForMissingOrClosedProposals() throws Exception {
+        Proposal closed = buildProposal();
+        closed.setLimitDate(LocalDate.now().minusDays(1));
+        String closedId = proposalRepository.save(closed).getId();
+        WriteBehindVoteBuffer buffer = startBuffer(1);
+
+        BadRequestException missing = assertThrows(BadRequestException.class,
+                () -> buffer.accept(buildVote(new ObjectId().toHexString(), "1000001", true)));
+        assertEquals("Proposal not found", missing.getMessage());
+        BadRequestException rejected = assertThrows(BadRequestException.class,
+                () -> buffer.accept(buildVote(closedId, "1000001", true)));
+        assertEquals("Proposal is closed", rejected.getMessage());
+
+        // Los rechazados no ocupan lugar en el buffer
+        buffer.accept(buildVote(proposalRepository.save(buildProposal()).getId(), "1000001", true));
+        buffer.stop();
+    }
+
+    @Test
+    void testFlushDiscardsVotesForProposalsDeletedAfterAccepting() throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        WriteBehindVoteBuffer buffer = startBuffer(100);
+
+        buffer.accept(buildVote(proposalId, "1000001", true));
+        proposalRepository.deleteById(proposalId);
+        buffer.flush();
+
+        assertEquals(0, voteRepository.count());
+        buffer.stop();
+    }
+
+    @Test
+    void testRejectsWhenBufferIsFull() throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        WriteBehindVoteBuffer buffer = startBuffer(2);
+
+        buffer.accept(buildVote(proposalId, "1000001", true));
+        buffer.accept(buildVote(proposalId, "1000002", true));
+        // Un ciudadano que ya está en el buffer puede cambiar su voto aunque esté lleno
+        buffer.accept(buildVote(proposalId, "1000001", false));
+
+        assertThrows(TooManyRequestsException.class, () -> buffer.accept(buildVote(proposalId, "1000003", true)));
+        buffer.stop();
+    }
+
+    @Test
+    void testFlushDoesNotRecountVotesAnotherNodeAlreadyWrote(@TempDir Path otherJournalDirectory) throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        WriteBehindVoteBuffer node = startBuffer(100);
+        WriteBehindVoteBuffer other = startBuffer(100, voteRepository, otherJournalDirectory);
+
+        // Los dos nodos reciben el mismo voto del ciudadano; solo la escritura que lo cambia mueve el contador
+        node.accept(buildVote(proposalId, "1000001", true));
+        other.accept(buildVote(proposalId, "1000001", true));
+        other.accept(buildVote(proposalId, "1000002", false));
+        node.flush();
+        other.flush();
+
+        Tally tally = proposalRepository.findTally(proposalId);
+        assertEquals(1, tally.getInFavor());
+        assertEquals(1, tally.getAgainst());
+        assertEquals(2, voteRepository.count());
+        node.stop();
+        other.stop();
+    }
+
+    @Test
+    void testVotesBeingFlushedCountTowardsTheLimit() throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        VoteRepository slowRepository = mock(VoteRepository.class, delegatesTo(voteRepository));
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return voteRepository.upsertAll(invocation.getArgument(0));
+        }).when(slowRepository).upsertAll(anyList());
+        WriteBehindVoteBuffer buffer = startBuffer(2, slowRepository, journalDirectory);
+
+        buffer.accept(buildVote(proposalId, "1000001", true));
+        buffer.accept(buildVote(proposalId, "1000002", true));
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> flush = executor.submit(() -> {
+                buffer.flush();
+                return null;
+            });
+            writing.await();
+
+            // El lote que se está escribiendo sigue ocupando memoria, así que no deja lugar para votos nuevos
+            assertThrows(TooManyRequestsException.class, () -> buffer.accept(buildVote(proposalId, "1000003", true)));
+            release.countDown();
+            flush.get();
+        }
+
+        buffer.accept(buildVote(proposalId, "1000003", true));
+        buffer.stop();
+        assertEquals(3, proposalRepository.findTally(proposalId).getInFavor());
+    }
+
+    @Test
+    void testReplaysUnflushedVotesAfterCrash() throws Exception {
+        String proposalId = proposalRepository.save(buildProposal()).getId();
+        WriteBehindVoteBuffer crashed = startBuffer(100);
+
+        crashed.accept(buildVote(proposalId, "1000001", true));
+        crashed.accept(buildVote(proposalId, "1000002", false));
+        // Simulamos la caída: el buffer nunca llega a escribir en MongoDB ni a cerrarse
+
+        WriteBehindVoteBuffer restarted = startBuffer(100);
+        restarted.flush();
+
+        Tally tally = proposalRepository.findTally(proposalId);
+        assertEquals(1, tally.getInFavor());
+        assertEquals(1, tally.getAgainst());
+        assertEquals(2, voteRepository.count());
+        restarted.stop();
+    }
+
+    private WriteBehindVoteBuffer startBuffer(int maxPending) throws Exception {
+        return startBuffer(maxPending, voteRepository, journalDirectory);
+    }
+
+    private WriteBehindVoteBuffer startBuffer(int maxPending, VoteRepository voteRepository, Path journalDirectory) throws Exception {
+        VoteIngestionProperties properties = new VoteIngestionProperties();
+        properties.setMode("write-behind");
+        properties.setJournalDirectory(journalDirectory.toString());
+        properties.setMaxPending(maxPending);
+        properties.setFlushInterval(Duration.ofHours(1));
+        WriteBehindVoteBuffer buffer = new WriteBehindVoteBuffer(properties, voteRepository, proposalRepository, proposalReadCache, tallyBroadcaster, tallyRecounter);
+        buffer.start();
+        return buffer;
+    }
+
+    private Vote buildVote(String proposalId, String userDocument, boolean inFavor) {
+        Vote vote = new Vote();
+        vote.setProposalId(proposalId);
+        vote.setUserDocument(userDocument);
+        vote.setInFavor(inFavor);
+        return vote;
+    }
+
+    private Proposal buildProposal() {
+        return ProposalFixtures.proposal("123456", LocalDate.of(2030, 12, 31));
+    }
+}
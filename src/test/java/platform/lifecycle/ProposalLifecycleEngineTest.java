@@ -0,0 +1,167 @@
+package platform.lifecycle;
+
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import entities.domain.ProposalResult;
+import entities.domain.Vote;
+import exception.BadRequestException;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import platform.MongoServerTest;
+import platform.repository.ProposalRepository;
+import platform.service.ProposalService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// El intervalo de una hora deja el scheduler quieto: la prueba corre cada paso a mano
+@SpringBootTest(properties = {"platform.lifecycle.enabled=true", "platform.lifecycle.interval=1h",
+        "platform.lifecycle.batch-size=2", "platform.lifecycle.archive-after=0s"})
+public class ProposalLifecycleEngineTest extends MongoServerTest {
+
+    @Autowired
+    private ProposalLifecycleEngine engine;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private ProposalService proposalService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), Vote.class);
+        mongoTemplate.remove(new Query(), ProposalResult.class);
+        mongoTemplate.remove(new Query(), ProposalLifecycleEngine.ARCHIVED_VOTES);
+        mongoTemplate.remove(new Query(), ProposalLifecycleEngine.ARCHIVED_COMMENTS);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("49359161", "password", List.of()));
+    }
+
+    @Test
+    void testExpiredProposalIsClosedFrozenAndArchived() {
+        String expired = save(LocalDate.now().minusDays(1), 3);
+        String open = save(LocalDate.now(), 1);
+        for (int i = 0; i < 5; i++) {
+            vote(expired, "user-" + i, i < 3);
+        }
+        vote(open, "user-0", true);
+
+        // Vencida pero todavía sin cerrar: las escrituras ya se rechazan por limitDate
+        BadRequestException rejected = assertThrows(BadRequestException.class,
+                () -> proposalService.comment(expired, new Comment()));
+        assertEquals("Proposal is closed", rejected.getMessage());
+
+        long versionBeforeClose = proposalRepository.findById(expired).orElseThrow().getVersion();
+        assertEquals(1, engine.closeExpired());
+        assertEquals(0, engine.closeExpired());
+        // Cerrar y congelar los contadores son dos escrituras y cada una cambia la versión
+        assertEquals(versionBeforeClose + 2, proposalRepository.findById(expired).orElseThrow().getVersion());
+        ProposalResult result = proposalService.getResult(expired);
+        assertEquals(3, result.getInFavorCount());
+        assertEquals(2, result.getAgainstCount());
+        assertEquals(3, result.getCommentCount());
+        assertNotNull(result.getClosedAt());
+        assertFalse(proposalRepository.isOpen(expired));
+        assertTrue(proposalRepository.isOpen(open));
+
+        // Los lotes de dos obligan a mover los votos y comentarios en varias escrituras
+        assertEquals(1, engine.archiveClosed());
+        assertEquals(0, mongoTemplate.count(Query.query(where("proposalId").is(expired)), Vote.class));
+        assertEquals(1, mongoTemplate.count(Query.query(where("proposalId").is(open)), Vote.class));
+        assertEquals(5, mongoTemplate.count(Query.query(where("proposalId").is(expired)), ProposalLifecycleEngine.ARCHIVED_VOTES));
+        assertEquals(3, mongoTemplate.count(Query.query(where("proposalId").is(expired)), ProposalLifecycleEngine.ARCHIVED_COMMENTS));
+
+        Proposal archived = proposalRepository.findById(expired).orElseThrow();
+        assertNull(archived.getComments());
+        assertNotNull(archived.getArchivedAt());
+        assertEquals(3, archived.getInFavorCount());
+        result = proposalService.getResult(expired);
+        assertEquals(3, result.getCommentCount());
+        assertNotNull(result.getArchivedAt());
+        assertEquals(0, engine.archiveClosed());
+    }
+
+    @Test
+    void testInterruptedArchiveIsResumedWithoutRecounting() {
+        String expired = save(LocalDate.now().minusDays(1), 0);
+        for (int i = 0; i < 5; i++) {
+            vote(expired, "user-" + i, i < 3);
+        }
+        engine.closeExpired();
+
+        // Otro nodo tomó el archivo hace un momento: este no lo toca
+        mongoTemplate.updateFirst(Query.query(where("id").is(expired)), new Update().set("archivingAt", Instant.now()), Proposal.class);
+        assertEquals(0, engine.archiveClosed());
+
+        // Ese nodo se cayó después de mover tres votos; pasado el timeout el archivo se retoma sin recalcular
+        List<Document> moved = mongoTemplate.find(new Query().limit(3), Document.class, mongoTemplate.getCollectionName(Vote.class));
+        mongoTemplate.insert(moved, ProposalLifecycleEngine.ARCHIVED_VOTES);
+        mongoTemplate.remove(Query.query(where("_id").in(moved.stream().map(vote -> vote.get("_id")).toList())), Vote.class);
+        mongoTemplate.updateFirst(Query.query(where("id").is(expired)),
+                new Update().set("archivingAt", Instant.now().minus(Duration.ofHours(1))), Proposal.class);
+        assertEquals(1, engine.archiveClosed());
+
+        Proposal archived = proposalRepository.findById(expired).orElseThrow();
+        assertNotNull(archived.getArchivedAt());
+        assertNull(archived.getArchivingAt());
+        assertEquals(3, archived.getInFavorCount());
+        assertEquals(2, archived.getAgainstCount());
+        ProposalResult result = proposalService.getResult(expired);
+        assertEquals(3, result.getInFavorCount());
+        assertEquals(2, result.getAgainstCount());
+        assertEquals(5, mongoTemplate.count(Query.query(where("proposalId").is(expired)), ProposalLifecycleEngine.ARCHIVED_VOTES));
+    }
+
+    @Test
+    void testVoteOnClosedProposalIsRejected() {
+        String expired = save(LocalDate.now().minusDays(1), 0);
+        engine.closeExpired();
+
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+        BadRequestException rejected = assertThrows(BadRequestException.class, () -> proposalService.vote(expired, vote));
+        assertEquals("Proposal is closed", rejected.getMessage());
+        assertEquals(0, mongoTemplate.count(new Query(), Vote.class));
+    }
+
+    private String save(LocalDate limitDate, int comments) {
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Nueva plaza");
+        proposal.setDescription("Plaza en el barrio");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(limitDate);
+        String id = proposalRepository.save(proposal).getId();
+        for (int i = 0; i < comments; i++) {
+            Comment comment = new Comment();
+            comment.setId("comment-" + id + "-" + i);
+            comment.setDescription("Comentario " + i);
+            comment.setPublishDate(LocalDate.now().minusDays(2));
+            mongoTemplate.updateFirst(Query.query(where("id").is(id)),
+                    new Update().push("comments", comment), Proposal.class);
+        }
+        return id;
+    }
+
+    private void vote(String proposalId, String userDocument, boolean inFavor) {
+        mongoTemplate.insert(new Document("proposalId", proposalId).append("userDocument", userDocument).append("inFavor", inFavor),
+                mongoTemplate.getCollectionName(Vote.class));
+    }
+}
@@ -0,0 +1,124 @@
+package platform.live;
+
+import entities.domain.Proposal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import platform.MongoServerTest;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// El ticker queda detenido con un intervalo de una hora: el test decide cuándo pasa cada intervalo
+@SpringBootTest(properties = {"platform.live.tally.interval=1h", "platform.live.tally.refresh-interval=1h"})
+@AutoConfigureMockMvc
+public class TallyBroadcasterTest extends MongoServerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TallyBroadcaster broadcaster;
+
+    private String proposalId;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Nueva plaza");
+        proposal.setDescription("Plaza en el barrio");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.now().plusDays(10));
+        proposalId = proposalRepository.save(proposal).getId();
+    }
+
+    @Test
+    void testVotesInOneIntervalAreCoalescedIntoOneFrame() throws Exception {
+        MockHttpServletResponse first = subscribe();
+        MockHttpServletResponse second = subscribe();
+        awaitContent(first, content -> content.contains("\"inFavor\":0"));
+
+        for (int i = 0; i < 50; i++) {
+            proposalRepository.incrementTally(proposalId, 0, 1, 0);
+            broadcaster.tallyChanged(proposalId);
+        }
+        proposalRepository.incrementTally(proposalId, 0, 0, 1);
+        broadcaster.tallyChanged(proposalId);
+        broadcaster.tick();
+
+        // El conteo inicial más un único frame con el resultado de todo el intervalo, para cada suscriptor
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{first, second}) {
+            String content = awaitContent(response, c -> c.contains("\"inFavor\":50"));
+            assertEquals(2, content.split("event:tally").length - 1);
+            assertTrue(content.contains("\"against\":1"));
+        }
+
+        // Sin cambios en el conteo no se envía nada
+        broadcaster.tallyChanged(proposalId);
+        broadcaster.tick();
+        Thread.sleep(100);
+        assertEquals(2, first.getContentAsString().split("event:tally").length - 1);
+    }
+
+    @Test
+    void testStreamsCloseWhenProposalIsDeleted() throws Exception {
+        int before = broadcaster.subscriberCount();
+        MockHttpServletResponse response = subscribe();
+        awaitContent(response, content -> content.contains("event:tally"));
+        assertEquals(before + 1, broadcaster.subscriberCount());
+
+        proposalRepository.deleteById(proposalId);
+        broadcaster.tallyChanged(proposalId);
+        broadcaster.tick();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.subscriberCount() > before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(before, broadcaster.subscriberCount());
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        String mayor = "Bearer " + jwtService.generateToken("41162211", "Mayor");
+        return mockMvc.perform(get("/api/proposals/{id}/tally/stream", proposalId).header(HttpHeaders.AUTHORIZATION, mayor))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    // Los frames se escriben en hilos virtuales, así que se espera a que aparezcan
+    private static String awaitContent(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!condition.test(content) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        assertTrue(condition.test(content), content);
+        return content;
+    }
+}
@@ -0,0 +1,118 @@
+package platform.migration;
+
+import entities.domain.Proposal;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import platform.MongoServerTest;
+import platform.ingestion.TallyRecounter;
+import platform.repository.ProposalChangeCounter;
+import platform.repository.ProposalRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+public class EmbeddedVotesMigrationTest extends MongoServerTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private ProposalChangeCounter proposalChangeCounter;
+
+    @Autowired
+    private TallyRecounter tallyRecounter;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), Vote.class);
+    }
+
+    @Test
+    void testMigrateEmbeddedVotes() {
+        ObjectId proposalId = new ObjectId();
+        List<Document> votes = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            votes.add(new Document("userDocument", String.valueOf(1_000_000 + i)).append("inFavor", i % 3 == 0));
+        }
+        mongoTemplate.insert(new Document("_id", proposalId).append("title", "Propuesta").append("votes", votes), "proposals");
+
+        // Un ciudadano ya votó por la nueva vía después de su voto embebido: debe conservarse el más reciente
+        Vote recent = new Vote();
+        recent.setProposalId(proposalId.toHexString());
+        recent.setUserDocument("1000000");
+        recent.setInFavor(false);
+        mongoTemplate.insert(recent);
+
+        new EmbeddedVotesMigration(mongoTemplate, proposalChangeCounter, tallyRecounter, 7).migrate();
+
+        Query byProposal = Query.query(Criteria.where("proposalId").is(proposalId.toHexString()));
+        assertEquals(30, mongoTemplate.count(byProposal, Vote.class));
+
+        Tally tally = proposalRepository.findTally(proposalId.toHexString());
+        assertEquals(9, tally.getInFavor());
+        assertEquals(21, tally.getAgainst());
+
+        Document migrated = mongoTemplate.findById(proposalId, Document.class, "proposals");
+        assertNotNull(migrated);
+        assertFalse(migrated.containsKey("votes"));
+    }
+
+    @Test
+    void testMigrateIsIdempotent() {
+        ObjectId proposalId = new ObjectId();
+        List<Document> votes = List.of(new Document("userDocument", "1000001").append("inFavor", true));
+        mongoTemplate.insert(new Document("_id", proposalId).append("title", "Propuesta").append("votes", votes), "proposals");
+
+        EmbeddedVotesMigration migration = new EmbeddedVotesMigration(mongoTemplate, proposalChangeCounter, tallyRecounter, 7);
+        migration.migrate();
+        migration.migrate();
+
+        assertEquals(1, mongoTemplate.count(new Query(), Vote.class));
+        assertEquals(1, proposalRepository.findTally(proposalId.toHexString()).getInFavor());
+    }
+
+    @Test
+    void testRecountIsScheduledWhenVotesKeepChangingTheProposal() {
+        ObjectId proposalId = new ObjectId();
+        List<Document> votes = List.of(new Document("userDocument", "1000001").append("inFavor", true));
+        mongoTemplate.insert(new Document("_id", proposalId).append("title", "Propuesta").append("version", 0L)
+                .append("votes", votes), "proposals");
+
+        // Cada conteo se cruza con el $inc de un voto recibido por otro nodo
+        MongoTemplate busy = spy(mongoTemplate);
+        doAnswer(invocation -> {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(proposalId)), new Update().inc("version", 1), "proposals");
+            return invocation.callRealMethod();
+        }).when(busy).count(any(Query.class), eq(Vote.class));
+        TallyRecounter recounter = mock(TallyRecounter.class);
+
+        new EmbeddedVotesMigration(busy, proposalChangeCounter, recounter, 7).migrate();
+
+        verify(recounter).schedule(proposalId.toHexString());
+        assertEquals(1, mongoTemplate.count(new Query(), Vote.class));
+        assertFalse(mongoTemplate.findById(proposalId, Document.class, "proposals").containsKey("votes"));
+    }
+}
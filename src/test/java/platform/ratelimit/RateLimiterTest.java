@@ -0,0 +1,150 @@
+package platform.ratelimit;
+
+import entities.domain.Proposal;
+import entities.domain.Vote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import platform.MongoServerTest;
+import platform.idempotency.IdempotencyFilter;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Períodos de una hora: durante el test no se recarga ningún token
+@SpringBootTest(properties = {"platform.rate-limit.endpoints.vote.capacity=1", "platform.rate-limit.endpoints.vote.period=1h",
+        "platform.rate-limit.endpoints.comment.capacity=2", "platform.rate-limit.endpoints.comment.period=1h",
+        "platform.rate-limit.endpoints.burst.capacity=10", "platform.rate-limit.endpoints.burst.period=1h"})
+@AutoConfigureMockMvc
+public class RateLimiterTest extends MongoServerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @SpyBean
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    private String proposalId;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), Vote.class);
+
+        Proposal proposal = new Proposal();
+        proposal.setTitle("Nueva plaza");
+        proposal.setDescription("Plaza en el barrio");
+        proposal.setAuthorDocument("41162211");
+        proposal.setLimitDate(LocalDate.now().plusDays(10));
+        proposalId = proposalRepository.save(proposal).getId();
+    }
+
+    @Test
+    void testRejectedRequestsGet429BeforeTouchingTheDatabase() throws Exception {
+        String citizen = "Bearer " + jwtService.generateToken("49359161", "Citizen");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/proposals/{id}/comment", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"Comentario " + i + "\"}"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/proposals/{id}/comment", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Otro comentario\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1800"));
+        assertEquals(2, proposalRepository.findById(proposalId).orElseThrow().getComments().size());
+
+        // Cada endpoint tiene su propio bucket: los comentarios no consumen votos
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":true}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":false}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3600"));
+        assertEquals(1, mongoTemplate.count(new Query(), Vote.class));
+
+        // Ni otro ciudadano
+        String other = "Bearer " + jwtService.generateToken("38111222", "Citizen");
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, other)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":false}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testRejectedRequestWithIdempotencyKeyDoesNotTouchTheDatabase() throws Exception {
+        String citizen = "Bearer " + jwtService.generateToken("27333444", "Citizen");
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(IdempotencyFilter.HEADER, "vote-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":true}"))
+                .andExpect(status().isOk());
+
+        // El límite corre antes que IdempotencyFilter: el 429 no toma ni libera la clave en MongoDB
+        clearInvocations(mongoTemplate);
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .header(IdempotencyFilter.HEADER, "vote-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":false}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3600"));
+        assertTrue(mockingDetails(mongoTemplate).getInvocations().isEmpty());
+    }
+
+    @Test
+    void testConcurrentRequestsNeverTakeMoreThanTheCapacity() throws Exception {
+        long now = System.nanoTime();
+        Callable<Boolean> request = () -> rateLimiter.tryAcquire("burst", "30111222", now) == 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<Future<Boolean>> results = executor.invokeAll(IntStream.range(0, 200).mapToObj(i -> request).toList());
+            long granted = 0;
+            for (Future<Boolean> result : results) {
+                granted += result.get() ? 1 : 0;
+            }
+            assertEquals(10, granted);
+        }
+
+        // Pasado un décimo del período vuelve a haber exactamente un token
+        long later = now + Duration.ofMinutes(6).toNanos();
+        assertEquals(0, rateLimiter.tryAcquire("burst", "30111222", later));
+        assertTrue(rateLimiter.tryAcquire("burst", "30111222", later) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("unknown", "30111222", later));
+    }
+}
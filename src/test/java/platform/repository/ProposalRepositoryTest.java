@@ -0,0 +1,298 @@
+package platform.repository;
+
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import entities.domain.ProposalSearchHit;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.RelaxedTypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import platform.MongoServerTest;
+import platform.ProposalFixtures;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+@SpringBootTest
+public class ProposalRepositoryTest extends MongoServerTest {
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProposalChangeCounter proposalChangeCounter;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+    }
+
+    @Test
+    void testFindSummariesWalksPagesWithCursor() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1).plusDays(i), i % 4)).getId());
+        }
+
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        List<ProposalSummary> page;
+        do {
+            page = proposalRepository.findSummaries(cursor, null, null, null, 10);
+            page.forEach(summary -> visited.add(summary.getId()));
+            cursor = page.isEmpty() ? null : page.getLast().getId();
+        } while (page.size() == 10);
+
+        // Se recorren todas las propuestas una sola vez, de la más nueva a la más vieja
+        assertEquals(ids.reversed(), visited);
+    }
+
+    @Test
+    void testFindSummariesProjectsCommentCount() {
+        proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1), 3));
+
+        ProposalSummary summary = proposalRepository.findSummaries(null, null, null, null, 10).getFirst();
+
+        assertEquals(3, summary.getCommentCount());
+        assertEquals("123456", summary.getAuthorDocument());
+        assertEquals(LocalDate.of(2030, 1, 1), summary.getLimitDate());
+    }
+
+    @Test
+    void testFindSummariesFilters() {
+        proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 10), 0));
+        proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 3, 10), 0));
+        proposalRepository.save(buildProposal("654321", LocalDate.of(2030, 1, 20), 0));
+
+        assertEquals(2, proposalRepository.findSummaries(null, null, null, "123456", 10).size());
+        assertEquals(2, proposalRepository.findSummaries(null, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31), null, 10).size());
+        assertEquals(1, proposalRepository.findSummaries(null, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31), "654321", 10).size());
+        assertEquals(1, proposalRepository.findSummaries(null, LocalDate.of(2030, 2, 1), null, null, 10).size());
+    }
+
+    @Test
+    void testPushAndPullComment() {
+        Proposal proposal = proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1), 0));
+        Comment comment = buildComment(LocalDate.of(2030, 1, 1));
+
+        assertTrue(proposalRepository.pushComment(proposal.getId(), comment, null));
+        assertEquals(comment.getId(), proposalRepository.findById(proposal.getId()).orElseThrow().getComments().getFirst().getId());
+
+        assertTrue(proposalRepository.pullComment(proposal.getId(), comment.getId()));
+        assertTrue(proposalRepository.findById(proposal.getId()).orElseThrow().getComments().isEmpty());
+        assertFalse(proposalRepository.pullComment(proposal.getId(), comment.getId()));
+    }
+
+    @Test
+    void testPushCommentProposalNotFound() {
+        assertFalse(proposalRepository.pushComment(new ObjectId().toHexString(), buildComment(LocalDate.now()), null));
+    }
+
+    @Test
+    void testVersionIncreasesOnEveryMutation() {
+        Proposal proposal = proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1), 0));
+        String id = proposal.getId();
+        assertEquals(0L, proposalRepository.findVersion(id));
+
+        Comment comment = buildComment(LocalDate.of(2030, 1, 1));
+        assertTrue(proposalRepository.pushComment(id, comment, 0L));
+        proposalRepository.incrementTally(id, 0, 1, 0);
+        proposalRepository.pullComment(id, comment.getId());
+        assertEquals(3L, proposalRepository.findVersion(id));
+        assertEquals(3L, proposalRepository.findSummaries(null, null, null, null, 1).getFirst().getVersion());
+
+        // Con una versión vieja ni el comentario ni el borrado se aplican
+        assertFalse(proposalRepository.pushComment(id, buildComment(LocalDate.of(2030, 1, 1)), 0L));
+        assertFalse(proposalRepository.deleteIfVersion(id, 2L));
+        assertTrue(proposalRepository.deleteIfVersion(id, 3L));
+        assertNull(proposalRepository.findVersion(id));
+    }
+
+    @Test
+    void testRecountRejectsIncrementsOfVotesWrittenBeforeIt() {
+        String id = proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1), 0)).getId();
+        ProposalRepositoryCustom.VoteTarget target = proposalRepository.findVoteTarget(id);
+        assertTrue(target.open());
+
+        // El voto ya está en la colección votes y el recálculo lo contó antes de que llegara su $inc
+        assertTrue(proposalRepository.setTally(id, proposalRepository.findVersion(id), 1, 0));
+        assertThrows(OptimisticLockingFailureException.class, () -> proposalRepository.incrementTally(id, target.tallyEpoch(), 1, 0));
+        assertFalse(proposalRepository.incrementTallies(List.of(new Tally(id, 1, 0)), Map.of(id, target.tallyEpoch())));
+        assertEquals(1, proposalRepository.findTally(id).getInFavor());
+
+        // Los votos que leen la época nueva se suman normalmente
+        long epoch = proposalRepository.findVoteTarget(id).tallyEpoch();
+        assertEquals(2, proposalRepository.incrementTally(id, epoch, 1, 0).getInFavor());
+        assertTrue(proposalRepository.incrementTallies(List.of(new Tally(id, 0, 1)), proposalRepository.findOpenTallyEpochs(List.of(id))));
+        assertEquals(1, proposalRepository.findTally(id).getAgainst());
+        assertNull(proposalRepository.incrementTally(new ObjectId().toHexString(), 0, 1, 0));
+    }
+
+    @Test
+    void testFingerprintChangesWithEveryWrite() {
+        ProposalRepositoryCustom.Fingerprint initial = proposalRepository.fingerprint();
+        assertEquals(initial, proposalRepository.fingerprint());
+
+        Proposal proposal = proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1), 0));
+        ProposalRepositoryCustom.Fingerprint created = proposalRepository.fingerprint();
+        assertEquals(initial.changes() + 1, created.changes());
+        assertEquals(initial.epoch(), created.epoch());
+
+        proposalRepository.incrementTally(proposal.getId(), 0, 1, 0);
+        ProposalRepositoryCustom.Fingerprint voted = proposalRepository.fingerprint();
+        assertNotEquals(created, voted);
+        assertEquals(voted, proposalRepository.fingerprint());
+
+        proposalRepository.pushComment(proposal.getId(), buildComment(LocalDate.of(2030, 1, 1)), null);
+        ProposalRepositoryCustom.Fingerprint commented = proposalRepository.fingerprint();
+        assertNotEquals(voted, commented);
+
+        // Una escritura rechazada no cambia la huella
+        assertFalse(proposalRepository.pushComment(proposal.getId(), buildComment(LocalDate.of(2030, 1, 1)), 0L));
+        assertEquals(commented, proposalRepository.fingerprint());
+
+        proposalRepository.deleteById(proposal.getId());
+        assertNotEquals(commented, proposalRepository.fingerprint());
+    }
+
+    @Test
+    void testFingerprintRotatesWhenTheCounterCannotBeBumped() {
+        MongoTemplate template = spy(mongoTemplate);
+        ProposalChangeCounter counter = new ProposalChangeCounter(template);
+        ProposalRepositoryCustom.Fingerprint initial = counter.read();
+
+        doThrow(new DataAccessResourceFailureException("timeout"))
+                .when(template).upsert(any(Query.class), any(Update.class), eq(ProposalChangeCounter.COLLECTION));
+        counter.increment();
+        // Ni la suba ni la rotación llegaron: este nodo no puede repetir una huella
+        ProposalRepositoryCustom.Fingerprint unreachable = counter.read();
+        assertNotEquals(initial, unreachable);
+        assertNotEquals(unreachable, counter.read());
+
+        // Cuando MongoDB vuelve se rota epoch y la huella vuelve a ser estable
+        doCallRealMethod().when(template).upsert(any(Query.class), any(Update.class), eq(ProposalChangeCounter.COLLECTION));
+        ProposalRepositoryCustom.Fingerprint rotated = counter.read();
+        assertNotEquals(initial.epoch(), rotated.epoch());
+        assertEquals(rotated, counter.read());
+        assertEquals(rotated, proposalChangeCounter.read());
+    }
+
+    // El servidor de prueba no implementa $text, así que se verifica el pipeline que recibiría MongoDB
+    @Test
+    void testSearchPipelineMatchesTextFirstAndSortsByScore() {
+        MongoTemplate template = spy(mongoTemplate);
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        doReturn(new AggregationResults<>(List.of(), new Document())).when(template)
+                .aggregate(aggregation.capture(), eq(Proposal.class), eq(ProposalSearchHit.class));
+
+        new ProposalRepositoryCustomImpl(template, proposalChangeCounter).search("plazas", ProposalRepositoryCustom.Status.OPEN, 5);
+
+        List<Document> pipeline = aggregation.getValue().toPipeline(new RelaxedTypeBasedAggregationOperationContext(Proposal.class,
+                mongoTemplate.getConverter().getMappingContext(), new QueryMapper(mongoTemplate.getConverter())));
+        // $text solo puede ir en el primer $match, que es el que usa el índice de texto
+        Document text = pipeline.get(0).get("$match", Document.class).get("$text", Document.class);
+        assertEquals("plazas", text.getString("$search"));
+
+        Document status = pipeline.get(1).get("$match", Document.class);
+        assertTrue(status.containsKey("closedAt"));
+        assertTrue(status.containsKey("limitDate"));
+
+        Document score = pipeline.get(2).get("$addFields", Document.class).get("score", Document.class);
+        assertEquals("textScore", score.getString("$meta"));
+
+        Document sort = pipeline.get(3).get("$sort", Document.class);
+        assertEquals(List.of("score", "_id"), List.copyOf(sort.keySet()));
+        assertEquals(-1, sort.getInteger("score"));
+        assertEquals(-1, sort.getInteger("_id"));
+
+        assertEquals(5L, pipeline.get(4).getLong("$limit"));
+        assertEquals(1, pipeline.get(5).get("$project", Document.class).getInteger("score"));
+    }
+
+    @Test
+    void testSearchPipelineWithoutStatusHasNoStatusFilter() {
+        MongoTemplate template = spy(mongoTemplate);
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        doReturn(new AggregationResults<>(List.of(), new Document())).when(template)
+                .aggregate(aggregation.capture(), eq(Proposal.class), eq(ProposalSearchHit.class));
+
+        new ProposalRepositoryCustomImpl(template, proposalChangeCounter).search("plazas", null, 5);
+
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertTrue(pipeline.get(0).get("$match", Document.class).containsKey("$text"));
+        assertTrue(pipeline.get(1).containsKey("$addFields"));
+    }
+
+    @Test
+    void testFindCommentsWalksPagesWithCursor() {
+        Proposal proposal = proposalRepository.save(buildProposal("123456", LocalDate.of(2030, 1, 1), 0));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Comment comment = buildComment(LocalDate.of(2030, 1, 1).plusDays(i / 5));
+            proposalRepository.pushComment(proposal.getId(), comment, null);
+            ids.add(comment.getId());
+        }
+
+        List<String> visited = new ArrayList<>();
+        LocalDate afterDate = null;
+        String afterId = null;
+        List<Comment> page;
+        do {
+            page = proposalRepository.findComments(proposal.getId(), afterDate, afterId, 5);
+            page.forEach(comment -> visited.add(comment.getId()));
+            if (!page.isEmpty()) {
+                afterDate = page.getLast().getPublishDate();
+                afterId = page.getLast().getId();
+            }
+        } while (page.size() == 5);
+
+        assertEquals(ids, visited);
+    }
+
+    private Comment buildComment(LocalDate publishDate) {
+        Comment comment = new Comment();
+        comment.setId(new ObjectId().toHexString());
+        comment.setUserDocument("49359161");
+        comment.setDescription("Muy buena idea");
+        comment.setPublishDate(publishDate);
+        return comment;
+    }
+
+    private Proposal buildProposal(String authorDocument, LocalDate limitDate, int comments) {
+        Proposal proposal = ProposalFixtures.proposal(authorDocument, limitDate);
+        proposal.setComments(new ArrayList<>());
+        for (int i = 0; i < comments; i++) {
+            Comment comment = new Comment();
+            comment.setDescription("Comentario " + i);
+            proposal.getComments().add(comment);
+        }
+        return proposal;
+    }
+}
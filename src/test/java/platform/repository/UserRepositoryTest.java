@@ -0,0 +1,62 @@
+package platform.repository;
+
+import entities.user.Citizen;
+import entities.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import platform.MongoServerTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserRepositoryTest extends MongoServerTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), User.class);
+    }
+
+    @Test
+    void testUniqueIndexesRejectDuplicates() {
+        userRepository.save(buildCitizen("49359161", "citizen@example.com"));
+
+        DuplicateKeyException sameDocument = assertThrows(DuplicateKeyException.class,
+                () -> userRepository.save(buildCitizen("49359161", "other@example.com")));
+        assertTrue(sameDocument.getMessage().contains(User.DOCUMENT_INDEX));
+
+        DuplicateKeyException sameEmail = assertThrows(DuplicateKeyException.class,
+                () -> userRepository.save(buildCitizen("64246717", "citizen@example.com")));
+        assertTrue(sameEmail.getMessage().contains(User.EMAIL_INDEX));
+
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void testUpdatePasswordIfUnchanged() {
+        userRepository.save(buildCitizen("49359161", "citizen@example.com"));
+
+        assertFalse(userRepository.updatePasswordIfUnchanged("49359161", "stale", "newHash"));
+        assertTrue(userRepository.updatePasswordIfUnchanged("49359161", "hash", "newHash"));
+        assertEquals("newHash", userRepository.findByDocument("49359161").getPassword());
+    }
+
+    private Citizen buildCitizen(String document, String email) {
+        Citizen citizen = new Citizen();
+        citizen.setName("Citizen");
+        citizen.setDocument(document);
+        citizen.setEmail(email);
+        citizen.setPassword("hash");
+        return citizen;
+    }
+}
@@ -0,0 +1,63 @@
+package platform.repository.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import platform.repository.ProposalRepository;
+import security.JwtService;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// La API completa funciona sin ningún servidor MongoDB levantado
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("in-memory")
+public class InMemoryProfileTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testProposalFlowWithoutMongo() throws Exception {
+        assertInstanceOf(InMemoryProposalRepository.class, proposalRepository);
+        String mayor = "Bearer " + jwtService.generateToken("41162211", "Mayor");
+        String citizen = "Bearer " + jwtService.generateToken("49359161", "Citizen");
+
+        String created = mockMvc.perform(post("/api/proposals").header(HttpHeaders.AUTHORIZATION, mayor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Nueva plaza\",\"description\":\"Plaza en el barrio\",\"limitDate\":\"31/12/2030\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String proposalId = objectMapper.readTree(created).get("id").asText();
+
+        mockMvc.perform(post("/api/proposals/{id}/vote", proposalId).header(HttpHeaders.AUTHORIZATION, citizen)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"inFavor\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inFavor").value(1));
+
+        mockMvc.perform(get("/api/proposals/{id}/tally", proposalId).header(HttpHeaders.AUTHORIZATION, mayor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inFavor").value(1))
+                .andExpect(jsonPath("$.against").value(0));
+    }
+}
@@ -0,0 +1,208 @@
+package platform.repository.memory;
+
+import entities.domain.Comment;
+import entities.domain.Proposal;
+import entities.domain.ProposalSearchHit;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import entities.user.Citizen;
+import entities.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import platform.ProposalFixtures;
+import platform.repository.ProposalRepositoryCustom;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryRepositoryTest {
+
+    @Test
+    void testUserUniqueIndexes() {
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+        Citizen first = repository.save(buildCitizen("41162211", "ana@mail.com"));
+
+        DuplicateKeyException duplicate = assertThrows(DuplicateKeyException.class,
+                () -> repository.save(buildCitizen("49359161", "ana@mail.com")));
+        assertTrue(duplicate.getMessage().contains(User.EMAIL_INDEX));
+        assertNull(repository.findByDocument("49359161"));
+
+        // Cambiar el email libera el anterior y conserva la subclase
+        User loaded = repository.findByDocument("41162211");
+        assertInstanceOf(Citizen.class, loaded);
+        loaded.setEmail("ana.nueva@mail.com");
+        repository.save(loaded);
+        assertNull(repository.findByEmail("ana@mail.com"));
+        assertEquals(first.getId(), repository.findByEmail("ana.nueva@mail.com").getId());
+        repository.save(buildCitizen("49359161", "ana@mail.com"));
+
+        assertTrue(repository.updatePasswordIfUnchanged("41162211", "hash", "rehash"));
+        assertFalse(repository.updatePasswordIfUnchanged("41162211", "hash", "otro"));
+        repository.deleteByDocument("41162211");
+        assertNull(repository.findByEmail("ana.nueva@mail.com"));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void testProposalVersionsAndCursor() {
+        InMemoryProposalRepository repository = new InMemoryProposalRepository();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(repository.save(buildProposal(LocalDate.of(2030, 1, 1).plusDays(i))).getId());
+        }
+
+        Proposal proposal = repository.findById(ids.getFirst()).orElseThrow();
+        assertEquals(0L, proposal.getVersion());
+        repository.incrementTally(proposal.getId(), 0, 1, 0);
+        // La copia leída quedó vieja: guardarla fallaría como con @Version en MongoDB
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(proposal));
+
+        Comment comment = new Comment();
+        comment.setId("65a000000000000000000001");
+        comment.setPublishDate(LocalDate.of(2030, 1, 1));
+        assertFalse(repository.pushComment(proposal.getId(), comment, 0L));
+        assertTrue(repository.pushComment(proposal.getId(), comment, 1L));
+        assertEquals(List.of(comment.getId()), repository.findComments(proposal.getId(), null, null, 10)
+                .stream().map(Comment::getId).toList());
+        assertEquals(2L, repository.findVersion(proposal.getId()));
+
+        List<ProposalSummary> page = repository.findSummaries(ids.get(3), null, null, null, 2);
+        assertEquals(List.of(ids.get(2), ids.get(1)), page.stream().map(ProposalSummary::getId).toList());
+        assertEquals(1, repository.findSummaries(null, LocalDate.of(2030, 1, 2), LocalDate.of(2030, 1, 2), null, 10).size());
+    }
+
+    @Test
+    void testConcurrentVotesKeepTallyConsistent() throws InterruptedException {
+        InMemoryProposalRepository proposals = new InMemoryProposalRepository();
+        InMemoryVoteRepository votes = new InMemoryVoteRepository();
+        String proposalId = proposals.save(buildProposal(LocalDate.of(2030, 1, 1))).getId();
+
+        // 200 ciudadanos votan y cambian de opinión varias veces desde hilos distintos
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 2000; i++) {
+                String user = String.valueOf(i % 200);
+                boolean inFavor = i % 3 == 0;
+                executor.execute(() -> {
+                    Vote vote = new Vote();
+                    vote.setProposalId(proposalId);
+                    vote.setUserDocument(user);
+                    vote.setInFavor(inFavor);
+                    Vote previous = votes.upsert(vote);
+                    if (previous == null) {
+                        proposals.incrementTally(proposalId, 0, inFavor ? 1 : 0, inFavor ? 0 : 1);
+                    } else if (previous.isInFavor() != inFavor) {
+                        proposals.incrementTally(proposalId, 0, inFavor ? 1 : -1, inFavor ? -1 : 1);
+                    }
+                });
+            }
+        }
+
+        Tally tally = proposals.findTally(proposalId);
+        assertEquals(200, votes.count());
+        assertEquals(votes.countByProposalIdAndInFavor(proposalId, true), tally.getInFavor());
+        assertEquals(votes.countByProposalIdAndInFavor(proposalId, false), tally.getAgainst());
+
+        votes.deleteByProposalId(proposalId);
+        assertEquals(0, votes.count());
+    }
+
+    private Citizen buildCitizen(String document, String email) {
+        Citizen citizen = new Citizen();
+        citizen.setDocument(document);
+        citizen.setName("Ana");
+        citizen.setEmail(email);
+        citizen.setPassword("hash");
+        return citizen;
+    }
+
+    @Test
+    void testProposalSearchRanksFoldsAccentsAndFiltersStatus() {
+        InMemoryProposalRepository repository = new InMemoryProposalRepository();
+        String inTitle = repository.save(buildProposal("Ciclovías para el Centro", "Carriles exclusivos", LocalDate.of(2030, 1, 1))).getId();
+        String inDescription = repository.save(buildProposal("Nueva plaza", "Con una ciclovia alrededor", LocalDate.of(2030, 1, 1))).getId();
+        String closed = repository.save(buildProposal("Ciclovía en la rambla", "Tramo costero", LocalDate.of(2020, 1, 1))).getId();
+        repository.save(buildProposal("Luces en las plazas", "Iluminación nueva", LocalDate.of(2030, 1, 1)));
+
+        // Sin tilde y en singular encuentra "Ciclovías"; el título pesa más que la descripción
+        List<String> found = repository.search("CICLOVIA", null, 10).stream().map(ProposalSearchHit::getId).toList();
+        assertEquals(3, found.size());
+        assertEquals(inDescription, found.getLast());
+        assertEquals(List.of(inTitle, inDescription),
+                repository.search("ciclovia", ProposalRepositoryCustom.Status.OPEN, 10).stream().map(ProposalSearchHit::getId).toList());
+        assertEquals(List.of(closed),
+                repository.search("ciclovia", ProposalRepositoryCustom.Status.CLOSED, 10).stream().map(ProposalSearchHit::getId).toList());
+        assertEquals(2, repository.search("luz plaza", null, 10).size());
+        assertTrue(repository.search("de la", null, 10).isEmpty());
+
+        // Editar o borrar una propuesta actualiza el índice
+        Proposal renamed = repository.findById(inTitle).orElseThrow();
+        renamed.setTitle("Bicisendas para el Centro");
+        repository.save(renamed);
+        repository.deleteById(closed);
+        assertEquals(List.of(inDescription),
+                repository.search("ciclovia", null, 10).stream().map(ProposalSearchHit::getId).toList());
+    }
+
+    @Test
+    void testProposalQueryByExample() {
+        InMemoryProposalRepository repository = new InMemoryProposalRepository();
+        Proposal ciclovia = repository.save(buildProposal("Ciclovía en el Centro", "Carriles exclusivos", LocalDate.of(2030, 1, 1)));
+        Proposal plaza = repository.save(buildProposal("Nueva plaza", "Juegos para el barrio", LocalDate.of(2031, 1, 1)));
+        Proposal otherAuthor = buildProposal("Luces en la rambla", "Iluminación nueva", LocalDate.of(2030, 1, 1));
+        otherAuthor.setAuthorDocument("50001112");
+        repository.save(otherAuthor);
+
+        // Los contadores primitivos del ejemplo valen 0 y filtrarían; se ignoran como en MongoDB
+        ExampleMatcher ignoringCounts = ExampleMatcher.matching().withIgnorePaths("inFavorCount", "againstCount");
+        Proposal byAuthor = new Proposal();
+        byAuthor.setAuthorDocument("41162211");
+        Example<Proposal> authorExample = Example.of(byAuthor, ignoringCounts);
+        assertEquals(2, repository.count(authorExample));
+        assertEquals(List.of(plaza.getId(), ciclovia.getId()),
+                repository.findAll(authorExample, Sort.by(Sort.Direction.DESC, "limitDate")).stream().map(Proposal::getId).toList());
+
+        Proposal byTitle = new Proposal();
+        byTitle.setTitle("CENTRO");
+        Example<Proposal> titleExample = Example.of(byTitle, ignoringCounts
+                .withMatcher("title", ExampleMatcher.GenericPropertyMatchers.contains().ignoreCase()));
+        assertEquals(ciclovia.getId(), repository.findOne(titleExample).orElseThrow().getId());
+        byTitle.setTitle("barrio");
+        assertFalse(repository.exists(Example.of(byTitle, ignoringCounts)));
+
+        // Lo devuelto es una copia, como en el resto de las lecturas
+        repository.findOne(authorExample).orElseThrow().setTitle("Cambiado");
+        assertNotEquals("Cambiado", repository.findById(ciclovia.getId()).orElseThrow().getTitle());
+
+        assertEquals(plaza.getId(), repository.findBy(authorExample,
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "limitDate")).firstValue()).getId());
+        Page<Proposal> page = repository.findBy(authorExample,
+                query -> query.sortBy(Sort.by("limitDate")).page(PageRequest.of(1, 1)));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of(plaza.getId()), page.map(Proposal::getId).getContent());
+        assertThrows(IncorrectResultSizeDataAccessException.class, () -> repository.findBy(authorExample, query -> query.oneValue()));
+    }
+
+    private Proposal buildProposal(String title, String description, LocalDate limitDate) {
+        Proposal proposal = buildProposal(limitDate);
+        proposal.setTitle(title);
+        proposal.setDescription(description);
+        return proposal;
+    }
+
+    private Proposal buildProposal(LocalDate limitDate) {
+        return ProposalFixtures.proposal("41162211", limitDate);
+    }
+}
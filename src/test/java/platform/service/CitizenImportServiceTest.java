@@ -0,0 +1,111 @@
+package platform.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import platform.MongoServerTest;
+import platform.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "platform.import.batch-size=2",
+        "security.password-hashing.min-strength=4",
+        "security.password-hashing.max-strength=4"
+})
+public class CitizenImportServiceTest extends MongoServerTest {
+
+    @Autowired
+    private CitizenImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), User.class);
+    }
+
+    @Test
+    void testCsvImportReportsRowErrorsWithoutStopping() throws Exception {
+        String csv = """
+                document,name,email,password,address
+                49359161,Ana,ana@example.com,secret1,"Av. 18 de Julio 1234, Montevideo"
+                49359162,Bad Document,bad@example.com,secret2,Somewhere
+                64246717,Duplicated Email,ana@example.com,secret3,Somewhere
+                41162211,Juan,juan@example.com,secret4,Somewhere
+                not,enough,columns
+                1234561,Luis,luis@example.com,secret5,Somewhere
+                """;
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        CitizenImportService.Summary summary = importService.importCitizens(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CitizenImportService.Format.CSV, report);
+
+        assertEquals(6, summary.processed());
+        assertEquals(3, summary.imported());
+        assertEquals(3, summary.failed());
+
+        List<JsonNode> errors = new ArrayList<>();
+        JsonNode last = null;
+        for (String line : report.toString(StandardCharsets.UTF_8).split("\n")) {
+            last = objectMapper.readTree(line);
+            if (last.get("type").asText().equals("error")) {
+                errors.add(last);
+            }
+        }
+        assertEquals(3, errors.size());
+        assertEquals(3, errors.get(0).get("line").asInt());
+        assertEquals("Invalid document format", errors.get(0).get("error").asText());
+        assertEquals(4, errors.get(1).get("line").asInt());
+        assertEquals("There is already a user with that email", errors.get(1).get("error").asText());
+        assertEquals(6, errors.get(2).get("line").asInt());
+        assertEquals("summary", last.get("type").asText());
+
+        User ana = userRepository.findByDocument("49359161");
+        assertEquals("Av. 18 de Julio 1234, Montevideo", ana.getAddress());
+        assertTrue(passwordEncoder.matches("secret1", ana.getPassword()));
+        assertNotNull(userRepository.findByDocument("41162211"));
+        assertNotNull(userRepository.findByDocument("1234561"));
+    }
+
+    @Test
+    void testNdjsonImportRejectsExistingDocuments() throws Exception {
+        String ndjson = """
+                {"document":"49359161","name":"Ana","email":"ana@example.com","password":"secret1"}
+                {"document":"49359161","name":"Otra Ana","email":"otra@example.com","password":"secret2"}
+                {not json
+                """;
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        CitizenImportService.Summary summary = importService.importCitizens(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), CitizenImportService.Format.NDJSON, report);
+
+        assertEquals(1, summary.imported());
+        assertEquals(2, summary.failed());
+        assertTrue(report.toString(StandardCharsets.UTF_8).contains("There is already a user with that document"));
+        assertEquals("Ana", userRepository.findByDocument("49359161").getName());
+    }
+}
@@ -1,7 +1,5 @@
 package platform.service;
 
-import entities.domain.Comment;
-import entities.domain.Proposal;
 import exception.BadRequestException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,11 +7,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import platform.repository.ProposalRepository;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,21 +26,12 @@ public class ModeratorServiceTest {
         String proposalId = "1";
         String commentId = "2";
 
-        Comment comment = new Comment();
-        comment.setId(commentId);
-        comment.setDescription("A comment");
-
-        Proposal proposal = new Proposal();
-        proposal.setId(proposalId);
-        proposal.setComments(new ArrayList<>(List.of(comment)));
-
-        when(proposalRepository.findById(proposalId)).thenReturn(Optional.of(proposal));
-        when(proposalRepository.save(proposal)).thenReturn(proposal);
+        when(proposalRepository.pullComment(proposalId, commentId)).thenReturn(true);
 
         moderatorService.deleteComment(proposalId, commentId);
 
-        assertTrue(proposal.getComments().isEmpty());
-        verify(proposalRepository).save(proposal);
+        verify(proposalRepository).pullComment(proposalId, commentId);
+        verify(proposalRepository, never()).findById(proposalId);
     }
 
     @Test
@@ -53,9 +39,22 @@ public class ModeratorServiceTest {
         String proposalId = "1";
         String commentId = "2";
 
-        when(proposalRepository.findById(proposalId)).thenReturn(Optional.empty());
+        when(proposalRepository.pullComment(proposalId, commentId)).thenReturn(false);
+        when(proposalRepository.existsById(proposalId)).thenReturn(false);
 
         BadRequestException exception = assertThrows(BadRequestException.class, () -> moderatorService.deleteComment(proposalId, commentId));
         assertEquals("Proposal not found", exception.getMessage());
     }
+
+    @Test
+    void testDeleteCommentNotFound() {
+        String proposalId = "1";
+        String commentId = "2";
+
+        when(proposalRepository.pullComment(proposalId, commentId)).thenReturn(false);
+        when(proposalRepository.existsById(proposalId)).thenReturn(true);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> moderatorService.deleteComment(proposalId, commentId));
+        assertEquals("Comment not found", exception.getMessage());
+    }
 }
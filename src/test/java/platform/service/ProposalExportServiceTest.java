@@ -0,0 +1,108 @@
+package platform.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.domain.Proposal;
+import exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import platform.MongoServerTest;
+import platform.repository.ProposalRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProposalExportServiceTest extends MongoServerTest {
+
+    @Autowired
+    private ProposalExportService exportService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+    }
+
+    @Test
+    void testExportWritesOneProposalPerLine() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            proposalRepository.save(buildProposal("Propuesta " + i, Instant.now()));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(null, false).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Propuesta 0", first.get("title").asText());
+        assertEquals(0, first.get("commentCount").asInt());
+        assertFalse(first.has("comments"));
+    }
+
+    @Test
+    void testExportSinceAndGzip() throws Exception {
+        Instant now = Instant.now();
+        proposalRepository.save(buildProposal("Vieja", now.minus(10, ChronoUnit.DAYS)));
+        proposalRepository.save(buildProposal("Nueva", now));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(now.minus(1, ChronoUnit.DAYS), true).writeTo(out);
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("Nueva", objectMapper.readTree(lines[0]).get("title").asText());
+    }
+
+    @Test
+    void testExportRejectsWhenTooManyInProgress() throws Exception {
+        ProposalExportService limited = new ProposalExportService(proposalRepository, objectMapper, 1);
+
+        var first = limited.export(null, false);
+        assertThrows(TooManyRequestsException.class, () -> limited.export(null, false));
+
+        // Al terminar la primera exportación se libera el lugar
+        first.writeTo(new ByteArrayOutputStream());
+        var second = limited.export(null, false);
+
+        // Un cuerpo que nunca corrió (el cliente cortó antes) también lo libera, una sola vez
+        second.release();
+        second.release();
+        assertNotNull(limited.export(null, false));
+        assertThrows(TooManyRequestsException.class, () -> limited.export(null, false));
+    }
+
+    private Proposal buildProposal(String title, Instant updatedAt) {
+        Proposal proposal = new Proposal();
+        proposal.setTitle(title);
+        proposal.setDescription("Descripción");
+        proposal.setLimitDate(LocalDate.of(2025, 12, 31));
+        proposal.setAuthorDocument("123456");
+        proposal.setUpdatedAt(updatedAt);
+        return proposal;
+    }
+}
@@ -1,25 +1,43 @@
 package platform.service;
 
 import entities.domain.Comment;
+import entities.domain.CursorPage;
 import entities.domain.Proposal;
+import entities.domain.ProposalSummary;
+import entities.domain.Tally;
 import entities.domain.Vote;
 import exception.BadRequestException;
+import exception.PreconditionFailedException;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import platform.ProposalFixtures;
+import platform.cache.ProposalReadCache;
+import platform.ingestion.TallyRecounter;
+import platform.ingestion.WriteBehindVoteBuffer;
+import platform.live.TallyBroadcaster;
 import platform.repository.ProposalRepository;
+import platform.repository.ProposalRepositoryCustom.VoteTarget;
+import platform.repository.VoteRepository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,9 +47,21 @@ public class ProposalServiceTest {
     @MockBean
     private ProposalRepository proposalRepository;
 
+    @MockBean
+    private VoteRepository voteRepository;
+
     @Autowired
     private ProposalService proposalService;
 
+    @Autowired
+    private ProposalReadCache proposalReadCache;
+
+    @Autowired
+    private TallyBroadcaster tallyBroadcaster;
+
+    @Autowired
+    private TallyRecounter tallyRecounter;
+
     @Test
     void testCreateProposal() {
         Proposal proposal = buildGenericProposal();
@@ -88,6 +118,25 @@ public class ProposalServiceTest {
         proposalService.delete(proposal.getId());
 
         verify(proposalRepository).deleteById(proposal.getId());
+        verify(voteRepository).deleteByProposalId(proposal.getId());
+    }
+
+    @Test
+    void testDeleteProposalWithStaleVersion() {
+        Proposal proposal = buildGenericProposal();
+        proposal.setVersion(4L);
+
+        when(proposalRepository.findById(proposal.getId())).thenReturn(Optional.of(proposal));
+        setAuthentication("123456", "password", "ROLE_USER");
+
+        // El cliente leyó la versión 3 y la propuesta cambió desde entonces
+        assertThrows(PreconditionFailedException.class, () -> proposalService.delete(proposal.getId(), 3L));
+        verify(proposalRepository, never()).deleteIfVersion(any(), any());
+        verify(voteRepository, never()).deleteByProposalId(proposal.getId());
+
+        when(proposalRepository.deleteIfVersion(proposal.getId(), 4L)).thenReturn(true);
+        proposalService.delete(proposal.getId(), 4L);
+        verify(voteRepository).deleteByProposalId(proposal.getId());
     }
 
     @Test
@@ -103,24 +152,23 @@ public class ProposalServiceTest {
     @Test
     void testCommentOnProposal() {
         Proposal proposal = buildGenericProposal();
-        proposal.setComments(new ArrayList<>());
 
         Comment comment = new Comment();
         comment.setDescription("Test Comment");
 
-        when(proposalRepository.findById(proposal.getId())).thenReturn(Optional.of(proposal));
-        when(proposalRepository.save(proposal)).thenReturn(proposal);
+        when(proposalRepository.pushComment(proposal.getId(), comment, null)).thenReturn(true);
 
         String userDocument = "123456";
         setAuthentication(userDocument, "password", "ROLE_USER");
 
-        Proposal result = proposalService.comment(proposal.getId(), comment);
+        Comment result = proposalService.comment(proposal.getId(), comment);
 
         assertNotNull(result);
-        assertTrue(result.getComments().contains(comment));
+        assertTrue(ObjectId.isValid(result.getId()));
         assertEquals(userDocument, comment.getUserDocument());
         assertEquals(LocalDate.now(), comment.getPublishDate());
-        verify(proposalRepository).save(proposal);
+        verify(proposalRepository).pushComment(proposal.getId(), comment, null);
+        verify(proposalRepository, never()).save(any(Proposal.class));
     }
 
     @Test
@@ -129,34 +177,89 @@ public class ProposalServiceTest {
         Comment comment = new Comment();
         comment.setDescription("Test Comment");
 
-        when(proposalRepository.findById(proposalId)).thenReturn(Optional.empty());
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.pushComment(proposalId, comment, null)).thenReturn(false);
+        when(proposalRepository.isOpen(proposalId)).thenReturn(null);
 
         BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.comment(proposalId, comment));
         assertEquals("Proposal not found", exception.getMessage());
     }
 
+    @Test
+    void testCommentOnProposalWithStaleVersion() {
+        Comment comment = new Comment();
+        comment.setDescription("Test Comment");
+
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.pushComment("1", comment, 3L)).thenReturn(false);
+        when(proposalRepository.isOpen("1")).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> proposalService.comment("1", comment, 3L));
+    }
+
+    @Test
+    void testGetCommentsReturnsCursor() {
+        Comment first = buildComment("65a000000000000000000001", LocalDate.of(2025, 1, 1));
+        Comment second = buildComment("65a000000000000000000002", LocalDate.of(2025, 1, 2));
+        Comment third = buildComment("65a000000000000000000003", LocalDate.of(2025, 1, 2));
+        when(proposalRepository.findComments("1", null, null, 3)).thenReturn(List.of(first, second, third));
+
+        CursorPage<Comment> page = proposalService.getComments("1", null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("2025-01-02_65a000000000000000000002", page.getNextCursor());
+    }
+
+    @Test
+    void testGetCommentsFromCursor() {
+        LocalDate date = LocalDate.of(2025, 1, 2);
+        String id = "65a000000000000000000002";
+        when(proposalRepository.findComments("1", date, id, 3)).thenReturn(List.of(buildComment("65a000000000000000000003", date)));
+
+        CursorPage<Comment> page = proposalService.getComments("1", "2025-01-02_" + id, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetCommentsInvalidCursor() {
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.getComments("1", "nope", 20));
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void testGetCommentsProposalNotFound() {
+        when(proposalRepository.findComments("1", null, null, 21)).thenReturn(List.of());
+        when(proposalRepository.existsById("1")).thenReturn(false);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.getComments("1", null, 20));
+        assertEquals("Proposal not found", exception.getMessage());
+    }
+
     @Test
     void testVoteOnProposal() {
         Proposal proposal = buildGenericProposal();
-        proposal.setVotes(new ArrayList<>());
 
         String userDocument = "123456";
 
         Vote vote = new Vote();
-        vote.setUserDocument(userDocument);
         vote.setInFavor(true);
 
-        when(proposalRepository.findById(proposal.getId())).thenReturn(Optional.of(proposal));
-        when(proposalRepository.save(proposal)).thenReturn(proposal);
+        when(proposalRepository.findVoteTarget(proposal.getId())).thenReturn(new VoteTarget(true, 0));
+        when(voteRepository.upsert(vote)).thenReturn(null);
+        when(proposalRepository.incrementTally(proposal.getId(), 0, 1, 0)).thenReturn(new Tally(proposal.getId(), 1, 0));
 
         setAuthentication(userDocument, "password", "ROLE_USER");
 
-        Proposal result = proposalService.vote(proposal.getId(), vote);
+        Tally result = proposalService.vote(proposal.getId(), vote);
 
-        assertNotNull(result);
-        assertTrue(result.getVotes().contains(vote));
+        assertEquals(1, result.getInFavor());
+        assertEquals(0, result.getAgainst());
         assertEquals(userDocument, vote.getUserDocument());
-        verify(proposalRepository).save(proposal);
+        assertEquals(proposal.getId(), vote.getProposalId());
+        verify(proposalRepository, never()).findById(proposal.getId());
+        verify(proposalRepository, never()).save(any(Proposal.class));
     }
 
     @Test
@@ -166,35 +269,195 @@ public class ProposalServiceTest {
         vote.setUserDocument("123456");
         vote.setInFavor(true);
 
-        when(proposalRepository.findById(proposalId)).thenReturn(Optional.empty());
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.findVoteTarget(proposalId)).thenReturn(null);
 
         BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.vote(proposalId, vote));
         assertEquals("Proposal not found", exception.getMessage());
+        verify(voteRepository, never()).upsert(vote);
+    }
+
+    @Test
+    void testVoteOnProposalDeletedAfterCheckRemovesTheVote() {
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.findVoteTarget("1")).thenReturn(new VoteTarget(true, 0));
+        when(voteRepository.upsert(vote)).thenReturn(null);
+        when(proposalRepository.incrementTally("1", 0, 1, 0)).thenReturn(null);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.vote("1", vote));
+        assertEquals("Proposal not found", exception.getMessage());
+        verify(voteRepository).deleteByProposalId("1");
+    }
+
+    @Test
+    void testTallyIsRecountedWhenTheIncrementFails() {
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.findVoteTarget("1")).thenReturn(new VoteTarget(true, 0));
+        when(proposalRepository.isOpen("1")).thenReturn(true);
+        when(voteRepository.upsert(vote)).thenReturn(null);
+        when(proposalRepository.incrementTally("1", 0, 1, 0)).thenThrow(new DataAccessResourceFailureException("timeout"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> proposalService.vote("1", vote));
+
+        // El recálculo cuenta los votos y solo escribe si la versión no cambió mientras contaba
+        when(proposalRepository.findVersion("1")).thenReturn(4L);
+        when(voteRepository.countByProposalIdAndInFavor("1", true)).thenReturn(1L);
+        when(proposalRepository.setTally("1", 4L, 1, 0)).thenReturn(true);
+        tallyRecounter.recountPending();
+        verify(proposalRepository).setTally("1", 4L, 1, 0);
+    }
+
+    @Test
+    void testVoteRecountedBeforeItsIncrementIsRecountedAgain() {
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.findVoteTarget("1")).thenReturn(new VoteTarget(true, 2));
+        when(voteRepository.upsert(vote)).thenReturn(null);
+        when(proposalRepository.incrementTally("1", 2, 1, 0)).thenThrow(new OptimisticLockingFailureException("recounted"));
+        when(proposalRepository.findTally("1")).thenReturn(new Tally("1", 1, 0));
+
+        // Un recálculo cambió la época entre el voto y el $inc: el voto no se suma dos veces y se vuelve a contar
+        Tally result = proposalService.vote("1", vote);
+
+        assertEquals(1, result.getInFavor());
+        when(proposalRepository.isOpen("1")).thenReturn(true);
+        when(proposalRepository.findVersion("1")).thenReturn(5L);
+        when(voteRepository.countByProposalIdAndInFavor("1", true)).thenReturn(1L);
+        when(proposalRepository.setTally("1", 5L, 1, 0)).thenReturn(true);
+        tallyRecounter.recountPending();
+        verify(proposalRepository).setTally("1", 5L, 1, 0);
+    }
+
+    @Test
+    void testVoteOnClosedProposalIsRejectedBeforeWriting() {
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+
+        setAuthentication("123456", "password", "ROLE_USER");
+        when(proposalRepository.findVoteTarget("1")).thenReturn(new VoteTarget(false, 0));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.vote("1", vote));
+        assertEquals("Proposal is closed", exception.getMessage());
+        verify(proposalRepository, never()).findById("1");
+        verify(voteRepository, never()).upsert(vote);
+    }
+
+    @Test
+    void testVoteIsBufferedInWriteBehindMode() {
+        WriteBehindVoteBuffer buffer = mock(WriteBehindVoteBuffer.class);
+        ProposalService bufferedService = new ProposalService(proposalRepository, voteRepository, Optional.of(buffer), proposalReadCache, tallyBroadcaster, tallyRecounter);
+
+        Vote vote = new Vote();
+        vote.setInFavor(true);
+        setAuthentication("123456", "password", "ROLE_USER");
+
+        Tally result = bufferedService.vote("1", vote);
+
+        assertNull(result);
+        assertEquals("1", vote.getProposalId());
+        verify(buffer).accept(vote);
+        verify(proposalRepository, never()).findVoteTarget("1");
+        verify(voteRepository, never()).upsert(vote);
+    }
+
+    @Test
+    void testVoteOnProposalChangedVote() {
+        Proposal proposal = buildGenericProposal();
+
+        Vote previous = new Vote();
+        previous.setInFavor(true);
+
+        Vote vote = new Vote();
+        vote.setInFavor(false);
+
+        when(proposalRepository.findVoteTarget(proposal.getId())).thenReturn(new VoteTarget(true, 0));
+        when(voteRepository.upsert(vote)).thenReturn(previous);
+        when(proposalRepository.incrementTally(proposal.getId(), 0, -1, 1)).thenReturn(new Tally(proposal.getId(), 0, 1));
+
+        setAuthentication("123456", "password", "ROLE_USER");
+
+        // El ciudadano cambia su voto: se descuenta el anterior y se suma el nuevo
+        Tally result = proposalService.vote(proposal.getId(), vote);
+
+        assertEquals(0, result.getInFavor());
+        assertEquals(1, result.getAgainst());
     }
 
     @Test
     void testVoteOnProposalDuplicateVote() {
         Proposal proposal = buildGenericProposal();
 
+        Vote previous = new Vote();
+        previous.setInFavor(true);
+
         Vote vote = new Vote();
-        vote.setUserDocument("123456");
         vote.setInFavor(true);
-        proposal.setVotes(new ArrayList<>());
-        proposal.getVotes().add(vote);
 
-        when(proposalRepository.findById(proposal.getId())).thenReturn(Optional.of(proposal));
-        when(proposalRepository.save(proposal)).thenReturn(proposal);
+        when(proposalRepository.findVoteTarget(proposal.getId())).thenReturn(new VoteTarget(true, 0));
+        when(voteRepository.upsert(vote)).thenReturn(previous);
+        when(proposalRepository.findTally(proposal.getId())).thenReturn(new Tally(proposal.getId(), 1, 0));
 
-        String userDocument = "123456";
-        setAuthentication(userDocument, "password", "ROLE_USER");
+        setAuthentication("123456", "password", "ROLE_USER");
 
-        // El usuario vuelve a votar (esto debería eliminar su voto anterior y agregar el nuevo)
-        vote.setInFavor(false);
-        Proposal result = proposalService.vote(proposal.getId(), vote);
+        Tally result = proposalService.vote(proposal.getId(), vote);
 
-        assertNotNull(result);
-        assertEquals(1, result.getVotes().size()); // Asegura que solo hay un voto del mismo usuario
-        verify(proposalRepository).save(proposal);
+        assertEquals(1, result.getInFavor());
+        verify(proposalRepository, never()).incrementTally(any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testListReturnsCursorWhenThereAreMorePages() {
+        List<ProposalSummary> summaries = List.of(buildSummary("3"), buildSummary("2"), buildSummary("1"));
+        when(proposalRepository.findSummaries(null, null, null, null, 3)).thenReturn(summaries);
+
+        CursorPage<ProposalSummary> page = proposalService.list(null, null, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("2", page.getNextCursor());
+    }
+
+    @Test
+    void testListLastPageHasNoCursor() {
+        String cursor = "65a000000000000000000001";
+        when(proposalRepository.findSummaries(cursor, null, null, "123456", 3)).thenReturn(List.of(buildSummary("1")));
+
+        CursorPage<ProposalSummary> page = proposalService.list(cursor, null, null, "123456", 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testListInvalidCursor() {
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.list("abc", null, null, null, 20));
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void testGetTally() {
+        when(proposalRepository.findTally("1")).thenReturn(new Tally("1", 3, 2));
+
+        Tally result = proposalService.getTally("1");
+
+        assertEquals(3, result.getInFavor());
+        assertEquals(2, result.getAgainst());
+        verify(proposalRepository, never()).findById("1");
+    }
+
+    @Test
+    void testGetTallyProposalNotFound() {
+        when(proposalRepository.findTally("1")).thenReturn(null);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> proposalService.getTally("1"));
+        assertEquals("Proposal not found", exception.getMessage());
     }
 
     private void setAuthentication(String userDocument, String password, String role) {
@@ -208,13 +471,22 @@ public class ProposalServiceTest {
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
     }
 
+    private Comment buildComment(String id, LocalDate publishDate) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setPublishDate(publishDate);
+        return comment;
+    }
+
+    private ProposalSummary buildSummary(String id) {
+        ProposalSummary summary = new ProposalSummary();
+        summary.setId(id);
+        return summary;
+    }
+
     private Proposal buildGenericProposal() {
-        Proposal proposal = new Proposal();
+        Proposal proposal = ProposalFixtures.proposal("123456", LocalDate.of(2025, 12, 31));
         proposal.setId("1");
-        proposal.setTitle("Crear ciclovía en el barrio Centro");
-        proposal.setDescription("Crear una ciclovía en el barrio Centro para fomentar el uso de la bicicleta y reducir el tráfico.");
-        proposal.setLimitDate(LocalDate.of(2025, 12, 31));
-        proposal.setAuthorDocument("123456");
         return proposal;
     }
 
@@ -0,0 +1,154 @@
+package platform.service;
+
+import entities.domain.Proposal;
+import entities.domain.Tally;
+import entities.domain.Vote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import platform.MongoServerTest;
+import platform.ProposalFixtures;
+import platform.repository.ProposalRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProposalVoteConcurrencyTest extends MongoServerTest {
+
+    private static final int VOTERS = 400;
+
+    @Autowired
+    private ProposalService proposalService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.remove(new Query(), Proposal.class);
+        mongoTemplate.remove(new Query(), Vote.class);
+    }
+
+    @Test
+    void testParallelVotesAreNotLost() throws Exception {
+        Proposal proposal = proposalRepository.save(buildGenericProposal());
+
+        runInParallel(VOTERS, i -> {
+            setAuthentication(String.valueOf(1_000_000 + i));
+            proposalService.vote(proposal.getId(), buildVote(i % 3 == 0));
+        });
+
+        List<Vote> votes = mongoTemplate.find(Query.query(Criteria.where("proposalId").is(proposal.getId())), Vote.class);
+        assertEquals(VOTERS, votes.size());
+        assertEquals(VOTERS, votes.stream().map(Vote::getUserDocument).collect(Collectors.toSet()).size());
+        assertEquals((VOTERS + 2) / 3, votes.stream().filter(Vote::isInFavor).count());
+
+        Tally tally = proposalService.getTally(proposal.getId());
+        assertEquals((VOTERS + 2) / 3, tally.getInFavor());
+        assertEquals(VOTERS - (VOTERS + 2) / 3, tally.getAgainst());
+    }
+
+    @Test
+    void testParallelRevotesKeepOneVotePerCitizen() throws Exception {
+        Proposal proposal = proposalRepository.save(buildGenericProposal());
+
+        // Cada ciudadano vota dos veces en simultáneo: primero a favor y luego en contra
+        runInParallel(VOTERS * 2, i -> {
+            setAuthentication(String.valueOf(1_000_000 + i / 2));
+            proposalService.vote(proposal.getId(), buildVote(i % 2 == 0));
+        });
+
+        List<Vote> votes = mongoTemplate.find(Query.query(Criteria.where("proposalId").is(proposal.getId())), Vote.class);
+        Set<String> voters = votes.stream().map(Vote::getUserDocument).collect(Collectors.toSet());
+        assertEquals(VOTERS, votes.size());
+        assertEquals(VOTERS, voters.size());
+
+        // Los contadores deben coincidir con el voto final de cada ciudadano, sin importar el orden de llegada
+        Tally tally = proposalService.getTally(proposal.getId());
+        assertEquals(votes.stream().filter(Vote::isInFavor).count(), tally.getInFavor());
+        assertEquals(votes.stream().filter(vote -> !vote.isInFavor()).count(), tally.getAgainst());
+    }
+
+    @Test
+    void testChangingVoteMovesTheTally() {
+        Proposal proposal = proposalRepository.save(buildGenericProposal());
+        setAuthentication("1000001");
+
+        Tally first = proposalService.vote(proposal.getId(), buildVote(true));
+        Tally repeated = proposalService.vote(proposal.getId(), buildVote(true));
+        Tally changed = proposalService.vote(proposal.getId(), buildVote(false));
+
+        assertEquals(1, first.getInFavor());
+        assertEquals(0, first.getAgainst());
+        assertEquals(1, repeated.getInFavor());
+        assertEquals(0, repeated.getAgainst());
+        assertEquals(0, changed.getInFavor());
+        assertEquals(1, changed.getAgainst());
+        SecurityContextHolder.clearContext();
+    }
+
+    private void runInParallel(int tasks, VoteTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        task.run(index);
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void setAuthentication(String userDocument) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                userDocument, "password", List.of(new SimpleGrantedAuthority("Citizen"))));
+    }
+
+    private Vote buildVote(boolean inFavor) {
+        Vote vote = new Vote();
+        vote.setInFavor(inFavor);
+        return vote;
+    }
+
+    private Proposal buildGenericProposal() {
+        return ProposalFixtures.proposal("123456", LocalDate.of(2030, 12, 31));
+    }
+
+    private interface VoteTask {
+        void run(int index);
+    }
+}
@@ -13,6 +13,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -24,6 +25,7 @@ import security.JwtService;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -125,9 +127,25 @@ public class UserServiceTest {
         when(passwordEncoder.matches("1234", "encodedPwd")).thenReturn(true);
         when(jwtService.generateToken("49359161", "Citizen")).thenReturn("fake-jwt-token");
 
-        ResponseEntity<?> response = userService.login("citizen@example.com", "1234");
+        ResponseEntity<?> response = userService.login("citizen@example.com", "1234").join();
 
         assertEquals("fake-jwt-token", ((JwtResponse) Objects.requireNonNull(response.getBody())).getToken());
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+    }
+
+    @Test
+    void testLogin_rehashesOutdatedHash() {
+        sampleCitizen.setPassword("weakPwd");
+
+        when(userRepository.findByEmail("citizen@example.com")).thenReturn(sampleCitizen);
+        when(passwordEncoder.matches("1234", "weakPwd")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("weakPwd")).thenReturn(true);
+        when(passwordEncoder.encode("1234")).thenReturn("strongPwd");
+        when(jwtService.generateToken("49359161", "Citizen")).thenReturn("fake-jwt-token");
+
+        userService.login("citizen@example.com", "1234").join();
+
+        verify(userRepository, timeout(1000)).updatePasswordIfUnchanged("49359161", "weakPwd", "strongPwd");
     }
 
     @Test
@@ -137,7 +155,9 @@ public class UserServiceTest {
         when(userRepository.findByEmail("citizen@example.com")).thenReturn(sampleCitizen);
         when(passwordEncoder.matches("wrong", "encodedPwd")).thenReturn(false);
 
-        assertThrows(BadRequestException.class, () -> userService.login("citizen@example.com", "wrong"));
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> userService.login("citizen@example.com", "wrong").join());
+        assertInstanceOf(BadRequestException.class, exception.getCause());
     }
 
     @Test
@@ -275,8 +295,9 @@ public class UserServiceTest {
         existingCitizen.setPassword("1234");
         existingCitizen.setAddress("Existing Address");
 
-        // Simular que el repositorio ya tiene un usuario con ese documento
-        when(userRepository.findByDocument("49359161")).thenReturn(existingCitizen);
+        // Simular que el índice único rechaza el documento repetido
+        when(userRepository.save(any(User.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: citizen-db.users index: " + User.DOCUMENT_INDEX));
 
         // Creo un nuevo usuario con el mismo documento
         Citizen newCitizen = new Citizen();
@@ -286,6 +307,30 @@ public class UserServiceTest {
         newCitizen.setPassword("1234");
         newCitizen.setAddress("New Address");
 
-        assertThrows(BadRequestException.class, () -> userService.createCitizen(newCitizen));
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> userService.createCitizen(newCitizen));
+        assertEquals("There is already a user with that document", exception.getMessage());
+        verify(userRepository, never()).findByDocument(any());
+    }
+
+    @Test
+    void testCreateUserEmailAlreadyExists() {
+        when(passwordEncoder.encode("1234")).thenReturn("encodedPwd");
+        when(userRepository.save(any(User.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: citizen-db.users index: " + User.EMAIL_INDEX));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> userService.createCitizen(sampleCitizen));
+        assertEquals("There is already a user with that email", exception.getMessage());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void testDocumentValidation_sevenDigits() {
+        when(passwordEncoder.encode("1234")).thenReturn("encodedPwd");
+        // 1234567 se valida como 01234567, cuyo dígito verificador es 1
+        sampleCitizen.setDocument("1234567");
+        assertThrows(BadRequestException.class, () -> userService.createCitizen(sampleCitizen));
+
+        sampleCitizen.setDocument("1234561");
+        assertEquals("Citizen created successfully", userService.createCitizen(sampleCitizen));
     }
 }
@@ -0,0 +1,102 @@
+package security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private SecretKey secretKey;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setup() {
+        secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(secretKey, new SecurityProperties(), meterRegistry);
+    }
+
+    @Test
+    void testAuthenticateValidToken() {
+        String token = jwtService.generateToken("49359161", "Citizen");
+
+        Authentication authentication = jwtService.authenticate(token);
+
+        assertNotNull(authentication);
+        assertEquals("49359161", authentication.getName());
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("Citizen")));
+    }
+
+    @Test
+    void testAuthenticateVerifiesEachTokenOnce() {
+        String token = jwtService.generateToken("49359161", "Citizen");
+
+        Authentication first = jwtService.authenticate(token);
+        Authentication second = jwtService.authenticate(token);
+
+        assertEquals(first.getName(), second.getName());
+        // Cada request recibe su propia instancia aunque la verificación venga de la caché
+        assertNotSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testAuthenticateRejectsTokenSignedWithAnotherKey() {
+        String token = Jwts.builder()
+                .setSubject("49359161")
+                .claim("role", "Mayor")
+                .setExpiration(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(jwtService.authenticate(token));
+        assertEquals(1.0, meterRegistry.get("security.jwt.failures").tag("reason", "signature").counter().count());
+    }
+
+    @Test
+    void testAuthenticateRejectsExpiredToken() {
+        String token = Jwts.builder()
+                .setSubject("49359161")
+                .claim("role", "Citizen")
+                .setExpiration(Date.from(Instant.now().minus(1, ChronoUnit.MINUTES)))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(jwtService.authenticate(token));
+        assertFalse(jwtService.validateToken(token));
+        assertEquals(1.0, meterRegistry.get("security.jwt.failures").tag("reason", "expired").counter().count());
+    }
+
+    @Test
+    void testAuthenticateRejectsTokenWithoutExpiration() {
+        String token = Jwts.builder()
+                .setSubject("49359161")
+                .claim("role", "Citizen")
+                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(jwtService.authenticate(token));
+        assertFalse(jwtService.validateToken(token));
+        assertEquals(1.0, meterRegistry.get("security.jwt.failures").tag("reason", "malformed").counter().count());
+    }
+
+    @Test
+    void testAuthenticateRejectsMalformedToken() {
+        assertNull(jwtService.authenticate("not-a-token"));
+        assertEquals(1.0, meterRegistry.get("security.jwt.failures").tag("reason", "malformed").counter().count());
+        assertEquals(1, meterRegistry.get("security.jwt.verification").timer().count());
+    }
+}
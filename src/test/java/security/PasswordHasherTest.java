@@ -0,0 +1,78 @@
+package security;
+
+import exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    void setup() {
+        SecurityProperties properties = new SecurityProperties();
+        properties.getPasswordHashing().setThreads(1);
+        properties.getPasswordHashing().setQueueCapacity(1);
+        properties.getPasswordHashing().setRetryAfterSeconds(3);
+
+        BCryptPasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        passwordHasher = new PasswordHasher(blockingEncoder, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() {
+        String hash = new BCryptPasswordEncoder(4).encode("1234");
+
+        // Uno ocupa el único hilo y otro la única posición de la cola
+        CompletableFuture<Boolean> running = passwordHasher.matches("1234", hash);
+        CompletableFuture<Boolean> queued = passwordHasher.matches("1234", hash);
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> passwordHasher.matches("1234", hash));
+        assertEquals(3, exception.getRetryAfterSeconds());
+
+        release.countDown();
+        assertTrue(running.join());
+        assertTrue(queued.join());
+        assertEquals(2, meterRegistry.get("security.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testNeedsRehashForLowerStrength() {
+        release.countDown();
+        SecurityProperties properties = new SecurityProperties();
+        PasswordHasher strongHasher = new PasswordHasher(new BCryptPasswordEncoder(6), properties, new SimpleMeterRegistry());
+        try {
+            assertTrue(strongHasher.needsRehash(new BCryptPasswordEncoder(4).encode("1234")));
+            assertFalse(strongHasher.needsRehash(strongHasher.encode("1234").join()));
+        } finally {
+            strongHasher.shutdown();
+        }
+    }
+}